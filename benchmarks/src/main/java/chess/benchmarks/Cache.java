@@ -0,0 +1,29 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+
+/**
+ * Whether a status or move query finds the game's cached legal moves. ChessGame keeps
+ * the moves of the current position until the next move, so the first query after a move
+ * pays for move generation and every later one is a lookup.
+ */
+public enum Cache {
+    /**
+     * The cache is dropped before every operation, as on the first query after a move
+     */
+    COLD,
+    /**
+     * The cache is left in place, as for the repeated queries between two moves
+     */
+    WARM;
+
+    /**
+     * Drops the game's cached moves if this is the cold case. Setting the turn to the side
+     * already to move changes nothing else.
+     */
+    public void prepare(ChessGame game) {
+        if (this == COLD) {
+            game.setTeamTurn(game.getTeamTurn());
+        }
+    }
+}
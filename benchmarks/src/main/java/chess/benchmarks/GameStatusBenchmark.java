@@ -0,0 +1,64 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The check, checkmate and stalemate queries the server runs after every move, asked
+ * for the side to move. In the {@link Cache#COLD cold} case each query generates the
+ * legal moves itself, as the first query after a move does; in the warm case it reads
+ * them from the game's cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameStatusBenchmark {
+
+    @Param
+    public Position position;
+
+    @Param
+    public Cache cache;
+
+    private ChessGame game;
+    private ChessGame.TeamColor color;
+
+    @Setup
+    public void setUp() {
+        game = position.load();
+        color = game.getTeamTurn();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        cache.prepare(game);
+        return game.isInCheck(color);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        cache.prepare(game);
+        return game.isInCheckmate(color);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        cache.prepare(game);
+        return game.isInStalemate(color);
+    }
+}
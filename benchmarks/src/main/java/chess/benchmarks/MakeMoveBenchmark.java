@@ -0,0 +1,60 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays and takes back every legal move of the position through the checked
+ * {@link ChessGame#makeMove} entry point, so each operation includes the legality
+ * check a client move goes through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MakeMoveBenchmark {
+
+    @Param
+    public Position position;
+
+    private ChessGame game;
+    private ChessMove[] moves;
+
+    @Setup
+    public void setUp() {
+        game = position.load();
+        List<ChessMove> legal = new ArrayList<>();
+        for (ChessPosition square : Position.squaresToMove(game)) {
+            legal.addAll(game.validMoves(square));
+        }
+        moves = legal.toArray(new ChessMove[0]);
+    }
+
+    @Benchmark
+    public ChessGame makeAndUnmake() throws InvalidMoveException {
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            game.unmakeMove();
+        }
+        return game;
+    }
+}
@@ -0,0 +1,54 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The positions every benchmark is run over: busy middlegames where move generation has
+ * the most to do, and sparse endgames where slider and king moves dominate.
+ */
+public enum Position {
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"),
+    ITALIAN("r1bq1rk1/pppp1ppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQ1RK1 w - - 0 6"),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"),
+    SYMMETRICAL("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"),
+    ROOK_ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"),
+    QUEEN_ENDGAME("4q1k1/5pp1/7p/8/8/6P1/5PKP/3Q4 w - - 0 1"),
+    PAWN_ENDGAME("8/5pk1/6p1/7p/1P5P/6P1/5PK1/8 w - - 0 1");
+
+    private final String fen;
+
+    Position(String fen) {
+        this.fen = fen;
+    }
+
+    public String fen() {
+        return fen;
+    }
+
+    public ChessGame load() {
+        return Fen.load(fen);
+    }
+
+    /**
+     * @return the squares holding a piece of the side to move
+     */
+    public static List<ChessPosition> squaresToMove(ChessGame game) {
+        List<ChessPosition> squares = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    squares.add(position);
+                }
+            }
+        }
+        return squares;
+    }
+}
@@ -0,0 +1,73 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.engine.Search;
+import chess.engine.SearchConfig;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times a fixed-depth search of each position with the selective search features
+ * switched on and off one at a time, starting from an empty transposition table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    public enum Features {
+        ALL(SearchConfig.DEFAULT),
+        NONE(SearchConfig.DEFAULT.withoutSelectivity()),
+        NO_NULL_MOVE(SearchConfig.DEFAULT.withNullMove(false)),
+        NO_LATE_MOVE_REDUCTIONS(SearchConfig.DEFAULT.withLateMoveReductions(false)),
+        NO_CHECK_EXTENSIONS(SearchConfig.DEFAULT.withCheckExtensions(false)),
+        NO_FUTILITY_PRUNING(SearchConfig.DEFAULT.withFutilityPruning(false));
+
+        private final SearchConfig config;
+
+        Features(SearchConfig config) {
+            this.config = config;
+        }
+    }
+
+    @Param
+    public Position position;
+
+    @Param
+    public Features features;
+
+    @Param("6")
+    public int depth;
+
+    private ChessGame game;
+    private TranspositionTable table;
+
+    @Setup
+    public void setUp() {
+        game = position.load();
+        table = new TranspositionTable(16);
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        table.clear();
+        return Search.bestMove(game, SearchLimits.ofDepth(depth), table, features.config);
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+/**
+ * Attack and line masks for each piece type, used by move generation and check
+ * detection.
+ * <p>
+ * Everything is precomputed into static tables when the class loads: knight, king and
+ * pawn attacks per square, a ray mask per direction per square, and the between/line
+ * masks for every pair of squares. Rook and bishop attacks are looked up in the
+ * {@link Magics} tables; the ray-walking versions here are what those tables are built from.
+ */
+public final class Attacks {
+
+    private static final int[][] KNIGHT_STEPS = {{1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+    private static final int[][] KING_STEPS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}, {1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    // Directions 0-3 increase the square index, so their nearest blocker is the lowest set bit
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}, {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}};
+    private static final int[] ORTHOGONAL = {0, 1, 4, 5};
+    private static final int[] DIAGONAL = {2, 3, 6, 7};
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = steps(square, KNIGHT_STEPS);
+            KING[square] = steps(square, KING_STEPS);
+            PAWN[Bitboards.WHITE][square] = steps(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN[Bitboards.BLACK][square] = steps(square, new int[][]{{-1, -1}, {-1, 1}});
+            for (int direction = 0; direction < 8; direction++) {
+                RAYS[direction][square] = ray(square, DIRECTIONS[direction]);
+            }
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int direction = 0; direction < 8; direction++) {
+                long ray = RAYS[direction][a];
+                long full = ray | RAYS[(direction + 4) % 8][a] | Bitboards.bit(a);
+                long targets = ray;
+                while (targets != 0) {
+                    int b = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    BETWEEN[a][b] = ray & ~RAYS[direction][b] & ~Bitboards.bit(b);
+                    LINE[a][b] = full;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of this color standing on square attacks
+     */
+    public static long pawn(int colorIndex, int square) {
+        return PAWN[colorIndex][square];
+    }
+
+    public static long rook(int square, long occupied) {
+        return Magics.rook(square, occupied);
+    }
+
+    public static long bishop(int square, long occupied) {
+        return Magics.bishop(square, occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between a and b when they share a row, column or
+     * diagonal, otherwise an empty mask
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square on the full row, column or diagonal through a and b, or an
+     * empty mask when they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    static long slidingRook(int square, long occupied) {
+        return slide(square, occupied, ORTHOGONAL);
+    }
+
+    static long slidingBishop(int square, long occupied) {
+        return slide(square, occupied, DIAGONAL);
+    }
+
+    private static long slide(int square, long occupied, int[] directions) {
+        long attacks = 0L;
+        for (int direction : directions) {
+            long ray = RAYS[direction][square];
+            long blockers = ray & occupied;
+            if (blockers != 0) {
+                int blocker = direction < 4 ? Long.numberOfTrailingZeros(blockers)
+                        : 63 - Long.numberOfLeadingZeros(blockers);
+                ray ^= RAYS[direction][blocker];
+            }
+            attacks |= ray;
+        }
+        return attacks;
+    }
+
+    private static long steps(int square, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int row = Bitboards.row(square) + step[0];
+            int col = Bitboards.column(square) + step[1];
+            if (Bitboards.onBoard(row, col)) {
+                attacks |= Bitboards.bit(Bitboards.square(row, col));
+            }
+        }
+        return attacks;
+    }
+
+    private static long ray(int square, int[] direction) {
+        long ray = 0L;
+        int row = Bitboards.row(square) + direction[0];
+        int col = Bitboards.column(square) + direction[1];
+        while (Bitboards.onBoard(row, col)) {
+            ray |= Bitboards.bit(Bitboards.square(row, col));
+            row += direction[0];
+            col += direction[1];
+        }
+        return ray;
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+/**
+ * Square and bitboard helpers shared by the board, move generation and check detection.
+ * <p>
+ * Squares are numbered 0-63 starting at a1 (row 1, column 1) and running along each row,
+ * so bit {@code n} of a bitboard is set when square {@code n} is occupied.
+ */
+public final class Bitboards {
+
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the 1-based row of the square
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the 1-based column of the square
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition position(int square) {
+        return new ChessPosition(row(square), column(square));
+    }
+
+    public static boolean onBoard(int row, int col) {
+        return row > 0 && row < 9 && col > 0 && col < 9;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    public static ChessGame.TeamColor color(int colorIndex) {
+        return colorIndex == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return index 0-11 of the bitboard holding pieces of this color and type
+     */
+    public static int pieceIndex(int colorIndex, ChessPiece.PieceType type) {
+        return colorIndex * 6 + type.ordinal();
+    }
+
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(colorIndex(piece.getTeamColor()), piece.getPieceType());
+    }
+}
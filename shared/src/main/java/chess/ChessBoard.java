@@ -1,20 +1,62 @@
 package chess;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Only the piece placement is serialized (see {@link ChessBoardAdapter}); the bitboards,
+ * key and evaluation totals are derived from it and rebuilt on load.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard {
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    ChessPiece[] squares = new ChessPiece[64];
+    final transient long[] pieceBitboards = new long[12];
+    final transient long[] colorBitboards = new long[2];
+    transient long occupied;
+    transient long zobristKey;
+    transient int mgScore;
+    transient int egScore;
+    transient int phase;
+
     public ChessBoard() {
     }
 
+    /**
+     * @return an independent board with the same pieces. Pieces are immutable and shared,
+     * so this only copies the square array and the bitboards.
+     */
+    public ChessBoard copy() {
+        ChessBoard copy = new ChessBoard();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Overwrites this board with the contents of another
+     */
+    void copyFrom(ChessBoard other) {
+        System.arraycopy(other.squares, 0, squares, 0, 64);
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, 12);
+        System.arraycopy(other.colorBitboards, 0, colorBitboards, 0, 2);
+        occupied = other.occupied;
+        zobristKey = other.zobristKey;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+    }
+
     @Override
     public String toString() {
-        return Arrays.deepToString(squares);
+        ChessPiece[][] rows = new ChessPiece[8][8];
+        for (int i = 0; i < 8; i++) {
+            System.arraycopy(squares, i * 8, rows[i], 0, 8);
+        }
+        return Arrays.deepToString(rows);
     }
 
 
@@ -27,17 +69,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (squares[i][j] == null && that.squares[i][j] == null) {
-                    continue;
-                }
-                if (squares[i][j] == null || that.squares[i][j] == null) {
-                    return false;
-                }
-                if (!squares[i][j].equals(that.squares[i][j])) {
-                    return false;
-                }
+        if (occupied != that.occupied) {
+            return false;
+        }
+        for (int i = 0; i < 12; i++) {
+            if (pieceBitboards[i] != that.pieceBitboards[i]) {
+                return false;
             }
         }
         return true;
@@ -45,13 +82,38 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        int hashy = 0;
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                hashy += squares[i][j].hashCode();
-            }
-        }
-        return hashy;
+        return (int) (zobristKey ^ (zobristKey >>> 32));
+    }
+
+    /**
+     * @return Zobrist key of the pieces on the board, kept up to date as pieces are placed
+     * and removed. Side to move, castling and en passant are folded in by ChessGame.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return middlegame material and piece-square total from {@link PieceSquareTables},
+     * positive when White is ahead, kept up to date as pieces are placed and removed
+     */
+    public int getMiddlegameScore() {
+        return mgScore;
+    }
+
+    /**
+     * @return endgame material and piece-square total, positive when White is ahead
+     */
+    public int getEndgameScore() {
+        return egScore;
+    }
+
+    /**
+     * @return game phase from the pieces on the board, {@link PieceSquareTables#MAX_PHASE}
+     * at the start and falling towards 0 as pieces are traded
+     */
+    public int getPhase() {
+        return phase;
     }
 
     /**
@@ -61,7 +123,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        setPiece(Bitboards.square(position), piece);
     }
 
     /**
@@ -72,73 +134,151 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        if (position.getRow() < 9 && position.getColumn() < 9 && position.getRow() > 0 && position.getColumn() > 0) {
-            return squares[position.getRow()-1][position.getColumn()-1];
+        if (Bitboards.onBoard(position.getRow(), position.getColumn())) {
+            return squares[Bitboards.square(position)];
         }
         return null;
     }
 
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Places a piece on a square (or clears it when piece is null), keeping the
+     * piece and occupancy bitboards, the Zobrist key and the evaluation totals in step
+     * with the square array. The shared instance for the piece's color and type is
+     * stored, not the piece passed in.
+     */
+    void setPiece(int square, ChessPiece piece) {
+        long bit = Bitboards.bit(square);
+        ChessPiece old = squares[square];
+        if (old != null) {
+            int index = Bitboards.pieceIndex(old);
+            zobristKey ^= Zobrist.piece(index, square);
+            mgScore -= PieceSquareTables.mg(index, square);
+            egScore -= PieceSquareTables.eg(index, square);
+            phase -= PieceSquareTables.phase(index);
+            pieceBitboards[index] &= ~bit;
+            colorBitboards[Bitboards.colorIndex(old.getTeamColor())] &= ~bit;
+            occupied &= ~bit;
+        }
+        if (piece == null) {
+            squares[square] = null;
+        } else {
+            int index = Bitboards.pieceIndex(piece);
+            squares[square] = ChessPiece.of(index);
+            zobristKey ^= Zobrist.piece(index, square);
+            mgScore += PieceSquareTables.mg(index, square);
+            egScore += PieceSquareTables.eg(index, square);
+            phase += PieceSquareTables.phase(index);
+            pieceBitboards[index] |= bit;
+            colorBitboards[Bitboards.colorIndex(piece.getTeamColor())] |= bit;
+            occupied |= bit;
+        }
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of this color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboards.pieceIndex(Bitboards.colorIndex(color), type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of this color
+     */
+    public long pieces(ChessGame.TeamColor color) {
+        return colorBitboards[Bitboards.colorIndex(color)];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Determines whether any piece of the given color attacks a square, looking outward
+     * from the square instead of generating the attackers' moves
+     *
+     * @param position the square being tested
+     * @param byColor  the attacking team
+     * @return True if a piece of byColor could capture on position
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(position), Bitboards.colorIndex(byColor), occupied);
+    }
+
+    public boolean isSquareAttacked(int square, int byColor) {
+        return isSquareAttacked(square, byColor, occupied);
+    }
+
+    /**
+     * Attack test against a caller-supplied occupancy, so a moving king can be taken
+     * off the board without touching it
+     */
+    boolean isSquareAttacked(int square, int byColor, long occupancy) {
+        return attackersTo(square, byColor, occupancy) != 0;
+    }
+
+    /**
+     * @return bitboard of the pieces of byColor that attack square, with only the pieces
+     * in occupancy taking part or blocking
+     */
+    long attackersTo(int square, int byColor, long occupancy) {
+        int base = byColor * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long attackers = Attacks.pawn(byColor ^ 1, square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()];
+        attackers |= Attacks.knight(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()];
+        attackers |= Attacks.king(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()];
+        attackers |= Attacks.rook(square, occupancy) & (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens);
+        attackers |= Attacks.bishop(square, occupancy) & (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens);
+        return attackers & occupancy;
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
-        squares[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        squares[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        squares[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        squares[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-
-        squares[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        squares[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        squares[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        squares[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-
-        squares[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        squares[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        squares[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        squares[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-
-        squares[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        squares[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-
-        squares[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        squares[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-
-        squares[1][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        squares[1][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-
-        squares[6][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        squares[6][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        Arrays.fill(squares, null);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+
+        ChessPiece.PieceType[] backRow = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
 
+        for (int col = 1; col <= 8; col++) {
+            setPiece(Bitboards.square(1, col), ChessPiece.of(ChessGame.TeamColor.WHITE, backRow[col - 1]));
+            setPiece(Bitboards.square(2, col), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            setPiece(Bitboards.square(7, col), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            setPiece(Bitboards.square(8, col), ChessPiece.of(ChessGame.TeamColor.BLACK, backRow[col - 1]));
+        }
+    }
+
+    /**
+     * @return the square of this color's king, or NO_SQUARE if it has none
+     */
+    public int kingSquare(int colorIndex) {
+        long king = pieceBitboards[Bitboards.pieceIndex(colorIndex, ChessPiece.PieceType.KING)];
+        return king == 0 ? Bitboards.NO_SQUARE : Long.numberOfTrailingZeros(king);
     }
 
+    /**
+     * @return the lowest square holding a piece of the same color and type, or null if
+     * there is none
+     */
     public ChessPosition getPosition(ChessPiece targetPiece) {
-        int rowNum = 0;
-        int colNum;
-
-        for (ChessPiece[] row : this.squares) {
-            rowNum = rowNum + 1;
-            colNum = 0;
-            for (ChessPiece piece : row) {
-                colNum = colNum + 1;
-                if (piece == targetPiece) {
-                    return new ChessPosition(rowNum, colNum);
-                }
-            }
-        }
-        return null;
+        long candidates = pieceBitboards[Bitboards.pieceIndex(targetPiece)];
+        return candidates == 0 ? null : Bitboards.position(Long.numberOfTrailingZeros(candidates));
     }
 }
@@ -0,0 +1,120 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a ChessBoard as its piece placement only.
+ * <p>
+ * Boards are written as an 8x8 array of rows, row 1 first, each square null or a piece
+ * with its color and type, which is the shape boards were stored in before they kept
+ * bitboards. Everything else on the board is derived from the placement and rebuilt
+ * through {@link ChessBoard#setPiece} on load, which also swaps in the shared piece
+ * instances. A flat 64-square array is accepted as well, and piece fields other than the
+ * color and type (such as the old moved flags) are skipped.
+ */
+final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    private static final String SQUARES = "squares";
+    private static final String TEAM_COLOR = "teamColor";
+    private static final String PIECE_TYPE = "pieceType";
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(SQUARES);
+        out.beginArray();
+        for (int row = 0; row < 8; row++) {
+            out.beginArray();
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board.getPiece(row * 8 + col);
+                if (piece == null) {
+                    // Array entries are written even when the writer skips null fields
+                    out.nullValue();
+                } else {
+                    out.beginObject();
+                    out.name(TEAM_COLOR).value(piece.getTeamColor().name());
+                    out.name(PIECE_TYPE).value(piece.getPieceType().name());
+                    out.endObject();
+                }
+            }
+            out.endArray();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessBoard board = new ChessBoard();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals(SQUARES)) {
+                readSquares(in, board);
+            } else {
+                // Derived state written by older versions is rebuilt rather than trusted
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return board;
+    }
+
+    private static void readSquares(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        int square = 0;
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    readSquare(in, board, square++);
+                }
+                in.endArray();
+            } else {
+                readSquare(in, board, square++);
+            }
+        }
+        in.endArray();
+        if (square != 64) {
+            throw new JsonParseException("Expected 64 squares but found " + square);
+        }
+    }
+
+    private static void readSquare(JsonReader in, ChessBoard board, int square) throws IOException {
+        if (square >= 64) {
+            throw new JsonParseException("More than 64 squares");
+        }
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case TEAM_COLOR -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                case PIECE_TYPE -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new JsonParseException("Piece on square " + square + " needs a color and a type");
+        }
+        board.setPiece(square, ChessPiece.of(color, type));
+    }
+}
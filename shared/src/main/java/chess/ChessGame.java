@@ -1,6 +1,8 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -8,16 +10,62 @@ import java.util.Collection;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Games are stored as JSON through Gson; {@link ChessGameAdapterFactory} fills in the
+ * castling rights of games stored before they were kept.
  */
+@JsonAdapter(ChessGameAdapterFactory.class)
 public class ChessGame {
 
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a move touching each square; a move keeps the rights
+    // in the masks of both its from and to squares
+    private static final int[] CASTLING_MASKS = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING);
+        CASTLING_MASKS[0] = ALL_CASTLING & ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[4] = ALL_CASTLING & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[7] = ALL_CASTLING & ~WHITE_KINGSIDE;
+        CASTLING_MASKS[56] = ALL_CASTLING & ~BLACK_QUEENSIDE;
+        CASTLING_MASKS[60] = ALL_CASTLING & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[63] = ALL_CASTLING & ~BLACK_KINGSIDE;
+    }
+
     private final ChessBoard board;
     private ChessGame.TeamColor teamTurn;
+    private int castlingRights;
+    private int enPassantSquare = Bitboards.NO_SQUARE;
+    private transient MoveUndo[] history = new MoveUndo[16];
+    private transient int historySize;
+    private transient PositionStatus[] statusCache = {new PositionStatus(), new PositionStatus()};
 
     public ChessGame() {
         this.board = new ChessBoard();
         this.board.resetBoard();
         this.teamTurn = ChessGame.TeamColor.WHITE;
+        this.castlingRights = ALL_CASTLING;
+    }
+
+    private ChessGame(ChessGame other) {
+        this.board = other.board.copy();
+        this.teamTurn = other.teamTurn;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+    }
+
+    /**
+     * @return an independent game in the same position, which either game can be moved
+     * on without affecting the other. The move history is not copied, so the copy cannot
+     * take back moves played before it was made.
+     */
+    public ChessGame copy() {
+        return new ChessGame(this);
     }
 
     /**
@@ -34,6 +82,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        invalidateStatus();
     }
 
     /**
@@ -52,86 +101,145 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        if (this.board.getPiece(startPosition) == null) {return null;}
-
-        ArrayList<ChessMove> validMoves = new ArrayList<>();
-
-        ChessPiece fromPiece = this.board.getPiece(startPosition);
-        ChessPiece toPiece = null;
-
-        for (ChessMove move : this.board.getPiece(startPosition).pieceMoves(this.board, startPosition)) {
-
-            if (move.getIsCastleMove()) {
-                if (!isInCheck(fromPiece.getTeamColor())) {
-                    // left castle
-                    leftCastle(move, fromPiece, validMoves);
-
-                    // right castle
-                    rightCastle(move, fromPiece, validMoves);
-                }
-            } else {
-                toPiece = this.board.squares[(move.getEndPosition()).getRow() - 1][(move.getEndPosition()).getColumn() - 1];
-                this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = null;
-                this.board.squares[move.getEndPosition().getRow() - 1][move.getEndPosition().getColumn() - 1] = fromPiece;
-
-                if (isInCheck(fromPiece.getTeamColor())) {
-                    this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                    this.board.squares[move.getEndPosition().getRow() - 1][move.getEndPosition().getColumn() - 1] = toPiece;
-                } else {
-                    validMoves.add(move);
-                    this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                    this.board.squares[move.getEndPosition().getRow() - 1][move.getEndPosition().getColumn() - 1] = toPiece;
-                }
-            }
+        ChessPiece piece = this.board.getPiece(startPosition);
+        if (piece == null) {return null;}
+
+        return status(piece.getTeamColor()).moves.toChessMoves(Bitboards.square(startPosition));
+    }
+
+    /**
+     * Returns the legal moves and check status of one side in the current position,
+     * generating them only when the position has changed since they were last asked for.
+     * The cache is keyed by the Zobrist key as well as being invalidated on moves, so
+     * changes made directly to the board are picked up too.
+     */
+    private PositionStatus status(TeamColor color) {
+        int us = Bitboards.colorIndex(color);
+        PositionStatus status = this.statusCache[us];
+        long key = getZobristKey();
+        if (!status.valid || status.key != key) {
+            status.moves.clear();
+            allLegalMoves(color, status.moves);
+            int king = this.board.kingSquare(us);
+            status.inCheck = king != Bitboards.NO_SQUARE && this.board.isSquareAttacked(king, us ^ 1);
+            status.key = key;
+            status.valid = true;
         }
-        return validMoves;
-    }
-
-    private void rightCastle(ChessMove move, ChessPiece fromPiece, ArrayList<ChessMove> validMoves) {
-        ChessPiece toPiece;
-        if (move.getEndPosition().getColumn() > move.getStartPosition().getColumn()) {
-            toPiece = this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn())];
-            this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-1] = null;
-            this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()] = fromPiece;
-            if (isInCheck(fromPiece.getTeamColor())) {
-                this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn())] = toPiece;
-            } else {
-                toPiece = this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn()+1)];
-                this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()] = null;
-                this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()+1] = fromPiece;
-                if (!isInCheck(fromPiece.getTeamColor())) {
-                    validMoves.add(move);
-                }
-                this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                this.board.squares[(move.getStartPosition()).getRow() - 1][(move.getStartPosition().getColumn() + 1)] = toPiece;
-            }
+        return status;
+    }
+
+    private void invalidateStatus() {
+        this.statusCache[Bitboards.WHITE].valid = false;
+        this.statusCache[Bitboards.BLACK].valid = false;
+    }
+
+    /**
+     * Generates every legal move for one side in a single pass, working out checks and
+     * pins once for the whole side
+     *
+     * @param color the side whose moves are wanted
+     * @return a new list of the packed moves
+     */
+    public MoveList allLegalMoves(TeamColor color) {
+        MoveList moves = new MoveList();
+        allLegalMoves(color, moves);
+        return moves;
+    }
+
+    /**
+     * Hands every legal move for one side to a visitor as it is generated, without
+     * allocating
+     */
+    public void allLegalMoves(TeamColor color, MoveVisitor visitor) {
+        int us = Bitboards.colorIndex(color);
+        MoveGenerator.legalMoves(this.board, us, -1L, MoveGenerator.ALL, this.castlingRights,
+                enPassantSquare(us), visitor);
+    }
+
+    /**
+     * Hands the legal captures, en passant captures and promotions for one side to a
+     * visitor. Together with {@link #quietMoves} this covers every legal move once, so a
+     * search can try the forcing moves first and only generate the rest if it needs them.
+     */
+    public void tacticalMoves(TeamColor color, MoveVisitor visitor) {
+        int us = Bitboards.colorIndex(color);
+        MoveGenerator.legalMoves(this.board, us, -1L, MoveGenerator.TACTICAL, this.castlingRights,
+                enPassantSquare(us), visitor);
+    }
+
+    /**
+     * Hands the legal moves that neither capture nor promote, castling included, to a
+     * visitor
+     */
+    public void quietMoves(TeamColor color, MoveVisitor visitor) {
+        int us = Bitboards.colorIndex(color);
+        MoveGenerator.legalMoves(this.board, us, -1L, MoveGenerator.QUIET, this.castlingRights,
+                enPassantSquare(us), visitor);
+    }
+
+    /**
+     * @return the castling rights still held, as a combination of the castling bits
+     */
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & ALL_CASTLING;
+        invalidateStatus();
+    }
+
+    /**
+     * @return the square a pawn could capture onto en passant, or NO_SQUARE
+     */
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+        invalidateStatus();
+    }
+
+    /**
+     * @return the en passant square if pawns of the given color are the ones that could
+     * capture onto it, otherwise NO_SQUARE
+     */
+    int enPassantSquare(int color) {
+        int captureRow = color == Bitboards.WHITE ? 6 : 3;
+        if (this.enPassantSquare == Bitboards.NO_SQUARE || Bitboards.row(this.enPassantSquare) != captureRow) {
+            return Bitboards.NO_SQUARE;
         }
+        return this.enPassantSquare;
     }
 
-    private void leftCastle(ChessMove move, ChessPiece fromPiece, ArrayList<ChessMove> validMoves) {
-        ChessPiece toPiece;
-        if (move.getEndPosition().getColumn() < move.getStartPosition().getColumn()) {
-            toPiece = this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn()-2)];
-            this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-1] = null;
-            this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-2] = fromPiece;
-            if (isInCheck(fromPiece.getTeamColor())) {
-                this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn()-2)] = toPiece;
-            } else {
-                toPiece = this.board.squares[(move.getStartPosition()).getRow()-1][(move.getStartPosition().getColumn()-3)];
-                this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-2] = null;
-                this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-3] = fromPiece;
-                if (isInCheck(fromPiece.getTeamColor())) {
-                    this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                    this.board.squares[(move.getStartPosition()).getRow() - 1][(move.getStartPosition().getColumn() - 3)] = toPiece;
-                } else {
-                    validMoves.add(move);
-                    this.board.squares[move.getStartPosition().getRow() - 1][move.getStartPosition().getColumn() - 1] = fromPiece;
-                    this.board.squares[(move.getStartPosition()).getRow() - 1][(move.getStartPosition().getColumn() - 3)] = toPiece;
-                }
+    /**
+     * @return castling bits for every king and rook standing on their home squares
+     */
+    int castlingRightsFromPlacement() {
+        int rights = 0;
+        if (isPiece(4, TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            if (isPiece(7, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= WHITE_KINGSIDE;
+            }
+            if (isPiece(0, TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= WHITE_QUEENSIDE;
             }
         }
+        if (isPiece(60, TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            if (isPiece(63, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= BLACK_KINGSIDE;
+            }
+            if (isPiece(56, TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+
+    private boolean isPiece(int square, TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = this.board.getPiece(square);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
     }
 
     /**
@@ -142,86 +250,185 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPiece fromPiece = this.board.getPiece(move.getStartPosition());
-        int endPosCol = move.getEndPosition().getColumn() - 1;
-        ChessPiece toPiece = this.board.squares[(move.getEndPosition()).getRow()-1][endPosCol];
 
         if (fromPiece == null) {
             throw new InvalidMoveException("No piece in starting position");
         }
 
+        if (fromPiece.getTeamColor() != this.getTeamTurn()) {
+            throw new InvalidMoveException("Not your turn");
+        }
 
-        int rowNum = 0;
-        int colNum;
-
-        for (ChessPiece[] row : this.board.squares) {
-            rowNum = rowNum + 1;
-            colNum = 0;
-            for (ChessPiece piece : row) {
-                colNum = colNum + 1;
-                if (piece != null && piece.getTeamColor().equals(fromPiece.getTeamColor())) {
-                    piece.setJustDoubleMoved(false);
-                }
-            }
+        int legal = legalMove(move);
+        if (legal == Move.NONE) {
+            throw new InvalidMoveException("Not a valid move");
         }
+        applyMove(legal);
+    }
 
+    /**
+     * Determines whether a move is legal for the side to move, checking only that move
+     * instead of generating every move of the piece
+     *
+     * @param move the move to check
+     * @return True if the move could be made with {@link #makeMove}
+     */
+    public boolean isLegal(ChessMove move) {
+        return legalMove(move) != Move.NONE;
+    }
 
-        if (fromPiece.getTeamColor() != this.getTeamTurn()) {
-            throw new InvalidMoveException("Not your turn");
+    /**
+     * Checks a packed move, such as one remembered from an earlier search, against the
+     * current position
+     *
+     * @return True if the move is legal for the side to move, flags included
+     */
+    public boolean isLegal(int move) {
+        if (move == Move.NONE) {
+            return false;
         }
+        int us = Bitboards.colorIndex(this.teamTurn);
+        return MoveGenerator.legalMove(this.board, us, this.castlingRights, enPassantSquare(us),
+                Move.from(move), Move.to(move), Move.promotionType(move)) == move;
+    }
 
-         for (ChessMove validMove : this.validMoves(move.getStartPosition())) {
-             if (move.equals(validMove)) {
-                 this.board.squares[move.getStartPosition().getRow()-1][move.getStartPosition().getColumn()-1] = null;
-                 int endPosRow = move.getEndPosition().getRow() - 1;
-                 this.board.squares[endPosRow][endPosCol] = fromPiece;
+    private int legalMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        if (!Bitboards.onBoard(start.getRow(), start.getColumn()) || !Bitboards.onBoard(end.getRow(), end.getColumn())) {
+            return Move.NONE;
+        }
+        int us = Bitboards.colorIndex(this.teamTurn);
+        return MoveGenerator.legalMove(this.board, us, this.castlingRights, enPassantSquare(us),
+                Bitboards.square(start), Bitboards.square(end), move.getPromotionPiece());
+    }
 
-                 this.board.squares[endPosRow][endPosCol].setHasMoved(true);
+    /**
+     * Plays a move without checking that it is legal, recording what is needed to
+     * take it back with {@link #unmakeMove()}. Castling and en passant moves must carry
+     * their flags, as the moves from the move generator do.
+     *
+     * @param move a packed move, as produced by {@link #allLegalMoves}
+     */
+    public void applyMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = this.board.getPiece(from);
+        TeamColor color = piece.getTeamColor();
+        invalidateStatus();
+
+        MoveUndo undo = pushUndo();
+        undo.move = move;
+        undo.from = from;
+        undo.to = to;
+        undo.piece = piece;
+        undo.castlingRights = this.castlingRights;
+        undo.enPassantSquare = this.enPassantSquare;
+        undo.capturedSquare = Move.isEnPassant(move) ? (from & ~7) | (to & 7) : to;
+        undo.captured = this.board.getPiece(undo.capturedSquare);
+        undo.turn = this.teamTurn;
+
+        this.board.setPiece(undo.capturedSquare, null);
+        this.board.setPiece(from, null);
+        this.board.setPiece(to, Move.isPromotion(move) ? ChessPiece.of(color, Move.promotionType(move)) : piece);
+
+        if (Move.isCastle(move)) {
+            moveCastlingRook(from, to, false);
+        }
 
-                 if (validMove.getIsCastleMove()) {
-                     // left castle
-                     if (validMove.getEndPosition().getColumn() < validMove.getStartPosition().getColumn()) {
-                         ChessPiece rook = this.board.squares[validMove.getStartPosition().getRow()-1][0];
-                         this.board.squares[validMove.getStartPosition().getRow()-1][0] = null;
-                         this.board.squares[validMove.getEndPosition().getRow()-1][3] = rook;
-                     }
+        this.castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        boolean doublePush = piece.getPieceType() == ChessPiece.PieceType.PAWN && (to - from == 16 || from - to == 16);
+        this.enPassantSquare = doublePush ? (from + to) >>> 1 : Bitboards.NO_SQUARE;
 
-                     // right castle
-                     if (validMove.getEndPosition().getColumn() > validMove.getStartPosition().getColumn()) {
-                         ChessPiece rook = this.board.squares[validMove.getStartPosition().getRow()-1][7];
-                         this.board.squares[validMove.getStartPosition().getRow()-1][7] = null;
-                         this.board.squares[validMove.getEndPosition().getRow()-1][5] = rook;
-                     }
-                 }
+        this.teamTurn = color == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
 
-                 if (validMove.getIsEnPassantMove()) {
-                     this.board.squares[move.getStartPosition().getRow()-1][endPosCol] = null;
-                 }
+    /**
+     * Passes the turn to the other side without moving a piece, for searches that test
+     * whether a position is strong enough to win even after giving up a move. Any en
+     * passant capture lapses. Taken back with {@link #unmakeMove()} like a real move;
+     * must not be played while the side to move is in check.
+     */
+    public void applyNullMove() {
+        invalidateStatus();
+        MoveUndo undo = pushUndo();
+        undo.move = Move.NONE;
+        undo.castlingRights = this.castlingRights;
+        undo.enPassantSquare = this.enPassantSquare;
+        undo.turn = this.teamTurn;
+
+        this.enPassantSquare = Bitboards.NO_SQUARE;
+        this.teamTurn = this.teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
 
-                 if (move.getPromotionPiece() != null) {
-                     this.board.squares[endPosRow][endPosCol] =
-                             new ChessPiece(fromPiece.getTeamColor(), move.getPromotionPiece());
-                 }
+    /**
+     * Takes back the most recent move played on this game
+     */
+    public void unmakeMove() {
+        if (this.historySize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        MoveUndo undo = this.history[--this.historySize];
+        invalidateStatus();
 
+        if (undo.move != Move.NONE) {
+            if (Move.isCastle(undo.move)) {
+                moveCastlingRook(undo.from, undo.to, true);
+            }
+            this.board.setPiece(undo.to, null);
+            this.board.setPiece(undo.from, undo.piece);
+            this.board.setPiece(undo.capturedSquare, undo.captured);
+        }
 
-                 if (this.getTeamTurn() == ChessGame.TeamColor.WHITE) {
-                     this.setTeamTurn(ChessGame.TeamColor.BLACK);
-                 } else if (this.getTeamTurn() == ChessGame.TeamColor.BLACK) {
-                     this.setTeamTurn(ChessGame.TeamColor.WHITE);
-                 }
+        this.castlingRights = undo.castlingRights;
+        this.enPassantSquare = undo.enPassantSquare;
+        this.teamTurn = undo.turn;
 
-                 if (this.board.squares[endPosRow][endPosCol].getPieceType() == ChessPiece.PieceType.PAWN) {
-                     if (move.getStartPosition().getRow() - move.getEndPosition().getRow() > 1 ||
-                             move.getStartPosition().getRow() - move.getEndPosition().getRow() < -1) {
-                         this.board.squares[endPosRow][endPosCol].setJustDoubleMoved(true);
-                     }
-                 }
+        undo.piece = null;
+        undo.captured = null;
+    }
 
-                 return;
-             }
-         }
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        int rankStart = kingFrom & ~7;
+        int rookHome = kingTo < kingFrom ? rankStart : rankStart + 7;
+        int rookCastled = kingTo < kingFrom ? rankStart + 3 : rankStart + 5;
+        int rookFrom = undo ? rookCastled : rookHome;
+        int rookTo = undo ? rookHome : rookCastled;
+        ChessPiece rook = this.board.getPiece(rookFrom);
+        this.board.setPiece(rookFrom, null);
+        this.board.setPiece(rookTo, rook);
+    }
 
-         throw new InvalidMoveException("Not a valid move");
+    private MoveUndo pushUndo() {
+        if (this.historySize == this.history.length) {
+            this.history = Arrays.copyOf(this.history, this.historySize * 2);
+        }
+        MoveUndo undo = this.history[this.historySize];
+        if (undo == null) {
+            undo = new MoveUndo();
+            this.history[this.historySize] = undo;
+        }
+        this.historySize++;
+        return undo;
+    }
 
+    /**
+     * @return Zobrist key of the position, covering the pieces, the side to move, the
+     * castling rights and the en passant file. The piece part is maintained by the board
+     * as moves are made and taken back; the other terms are folded in here.
+     */
+    public long getZobristKey() {
+        int us = Bitboards.colorIndex(this.teamTurn);
+        long key = this.board.getZobristKey() ^ Zobrist.castling(this.castlingRights);
+        int epSquare = enPassantSquare(us);
+        if (epSquare != Bitboards.NO_SQUARE && (Attacks.pawn(us ^ 1, epSquare)
+                & this.board.pieceBitboards[Bitboards.pieceIndex(us, ChessPiece.PieceType.PAWN)]) != 0) {
+            key ^= Zobrist.enPassant(epSquare);
+        }
+        if (this.teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        return key;
     }
 
     /**
@@ -231,46 +438,7 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        int rowNum = 0;
-        int colNum;
-        ChessPosition kingPosition = null;
-
-        for (ChessPiece[] row : this.board.squares) {
-            rowNum = rowNum + 1;
-            colNum = 0;
-            for (ChessPiece piece : row) {
-                colNum = colNum + 1;
-                if (piece != null && piece.getTeamColor().equals(teamColor)) {
-                    if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-                        kingPosition = new ChessPosition(rowNum, colNum);
-                    }
-                }
-            }
-        }
-
-        rowNum = 0;
-        for (ChessPiece[] row : this.board.squares) {
-            rowNum = rowNum + 1;
-            colNum = 0;
-            for (ChessPiece piece : row) {
-                colNum = colNum + 1;
-                if (piece != null && !piece.getTeamColor().equals(teamColor)) {
-                    if (checkMovesEndOnKing(piece, rowNum, colNum, kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean checkMovesEndOnKing(ChessPiece piece, int rowNum, int colNum, ChessPosition kingPosition) {
-        for (ChessMove move : piece.pieceMoves(this.board, new ChessPosition(rowNum, colNum))) {
-            if (move.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
-        }
-        return false;
+        return status(teamColor).inCheck;
     }
 
     /**
@@ -280,10 +448,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (cantMove(teamColor)) {
-            return false;
-        }
-        return this.isInCheck(teamColor);
+        PositionStatus status = status(teamColor);
+        return status.inCheck && status.moves.isEmpty();
     }
 
     /**
@@ -294,40 +460,21 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (cantMove(teamColor)) {
-            return false;
-        }
-        return !this.isInCheck(teamColor);
-    }
-
-    private boolean cantMove(TeamColor teamColor) {
-        int rowNum = 0;
-        int colNum;
-
-        for (ChessPiece[] row : this.board.squares) {
-            rowNum = rowNum + 1;
-            colNum = 0;
-            for (ChessPiece piece : row) {
-                colNum = colNum + 1;
-                if (piece != null && piece.getTeamColor().equals(teamColor)) {
-                    for (ChessMove move : this.validMoves(new ChessPosition(rowNum, colNum))) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        PositionStatus status = status(teamColor);
+        return !status.inCheck && status.moves.isEmpty();
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. Castling is allowed for every king
+     * and rook found on their home squares, and no en passant capture is available.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        for (int i = 0; i < 8; i++) {
-            System.arraycopy(board.squares[i], 0, this.board.squares[i], 0, 8);
-        }
+        this.board.copyFrom(board);
+        this.castlingRights = castlingRightsFromPlacement();
+        this.enPassantSquare = Bitboards.NO_SQUARE;
+        invalidateStatus();
     }
 
     /**
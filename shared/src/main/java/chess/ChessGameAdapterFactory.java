@@ -0,0 +1,123 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes a ChessGame through Gson's reflective adapter, filling in the castling
+ * rights of games stored before they were kept as a field.
+ * <p>
+ * Those games recorded a moved flag on every piece instead. A king or rook that moved
+ * and came back to its home square still has its flag set, so the rights are worked out
+ * from the flags of the pieces on the home squares. Only when the flags are missing too
+ * are the rights guessed from the placement, as {@link ChessGame#setBoard} does.
+ */
+final class ChessGameAdapterFactory implements TypeAdapterFactory {
+
+    private static final String CASTLING_RIGHTS = "castlingRights";
+    private static final String BOARD = "board";
+    private static final String SQUARES = "squares";
+    private static final String HAS_MOVED = "hasMoved";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessGame.class) {
+            return null;
+        }
+        TypeAdapter<ChessGame> delegate = gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class));
+        TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+        return (TypeAdapter<T>) new TypeAdapter<ChessGame>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                delegate.write(out, game);
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                JsonElement json = elements.read(in);
+                ChessGame game = delegate.fromJsonTree(json);
+                if (game != null && !json.getAsJsonObject().has(CASTLING_RIGHTS)) {
+                    game.setCastlingRights(legacyCastlingRights(json.getAsJsonObject(), game));
+                }
+                return game;
+            }
+        };
+    }
+
+    private static int legacyCastlingRights(JsonObject json, ChessGame game) {
+        JsonObject[] squares = squares(json);
+        if (squares == null) {
+            return game.castlingRightsFromPlacement();
+        }
+        int rights = 0;
+        for (int color = Bitboards.WHITE; color <= Bitboards.BLACK; color++) {
+            int home = color == Bitboards.WHITE ? 0 : 56;
+            Boolean king = unmoved(squares[home + 4], color, ChessPiece.PieceType.KING);
+            Boolean kingside = unmoved(squares[home + 7], color, ChessPiece.PieceType.ROOK);
+            Boolean queenside = unmoved(squares[home], color, ChessPiece.PieceType.ROOK);
+            if (king == null || kingside == null || queenside == null) {
+                return game.castlingRightsFromPlacement();
+            }
+            if (king) {
+                int shift = color == Bitboards.WHITE ? 0 : 2;
+                rights |= (kingside ? ChessGame.WHITE_KINGSIDE << shift : 0)
+                        | (queenside ? ChessGame.WHITE_QUEENSIDE << shift : 0);
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * @return the 64 squares of the stored board, row 1 first, with empty squares null, or
+     * null if the board is not stored as squares
+     */
+    private static JsonObject[] squares(JsonObject json) {
+        if (!json.has(BOARD) || !json.get(BOARD).isJsonObject()
+                || !json.getAsJsonObject(BOARD).has(SQUARES)) {
+            return null;
+        }
+        JsonObject[] squares = new JsonObject[64];
+        int square = 0;
+        for (JsonElement entry : json.getAsJsonObject(BOARD).getAsJsonArray(SQUARES)) {
+            // Rows of eight, or a flat list of all 64 squares
+            JsonArray row = entry.isJsonArray() ? entry.getAsJsonArray() : null;
+            int count = row == null ? 1 : row.size();
+            for (int i = 0; i < count; i++, square++) {
+                JsonElement piece = row == null ? entry : row.get(i);
+                if (square < 64 && piece.isJsonObject()) {
+                    squares[square] = piece.getAsJsonObject();
+                }
+            }
+        }
+        return square == 64 ? squares : null;
+    }
+
+    /**
+     * @return whether the piece of the given color and type on the square has never moved,
+     * false if another piece or none is there, or null if the piece has no moved flag
+     */
+    private static Boolean unmoved(JsonObject piece, int color, ChessPiece.PieceType type) {
+        if (piece == null || !Bitboards.color(color).name().equals(string(piece, "teamColor"))
+                || !type.name().equals(string(piece, "pieceType"))) {
+            return false;
+        }
+        if (!piece.has(HAS_MOVED) || !piece.get(HAS_MOVED).isJsonPrimitive()) {
+            return null;
+        }
+        return !piece.get(HAS_MOVED).getAsBoolean();
+    }
+
+    private static String string(JsonObject object, String name) {
+        return object.has(name) && object.get(name).isJsonPrimitive() ? object.get(name).getAsString() : null;
+    }
+}
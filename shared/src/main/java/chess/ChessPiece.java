@@ -1,27 +1,47 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * Represents a single chess piece
  * <p>
+ * Pieces are immutable. {@link #of} hands out one shared instance per color and type,
+ * and boards store only those instances, so pieces on a board can be compared by
+ * reference. Boards loaded from JSON go through the same path, since their adapter
+ * places pieces with setPiece.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessPiece {
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(Bitboards.colorIndex(color), type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final ChessPiece.PieceType pieceType;
-    private boolean hasMoved;
-    private boolean justDoubleMoved;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceType = type;
         this.teamColor = pieceColor;
-        this.justDoubleMoved = false;
-        this.hasMoved = false;
+    }
+
+    /**
+     * @return the shared instance for this color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor color, PieceType type) {
+        return PIECES[Bitboards.pieceIndex(Bitboards.colorIndex(color), type)];
+    }
+
+    static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
     }
 
     @Override
@@ -77,200 +97,97 @@ public class ChessPiece {
         return this.pieceType;
     }
 
-    public boolean getJustDoubleMoved() {
-        return this.justDoubleMoved;
-    }
-
-    public void setJustDoubleMoved(boolean setting) {
-        this.justDoubleMoved = setting;
-    }
-
-    public boolean getHasMoved() {
-        return this.hasMoved;
-    }
-
-    public void setHasMoved(boolean setting) {
-        this.hasMoved = setting;
-    }
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
-     * danger
+     * danger. Castling and en passant depend on the game's history rather than the
+     * board, so they are only generated by ChessGame.
      *
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-
-        if (this.pieceType == PieceType.KING || this.pieceType == PieceType.QUEEN ||
-                this.pieceType == PieceType.BISHOP || this.pieceType == PieceType.ROOK ||
-                this.pieceType == PieceType.KNIGHT) {
-            calculateMovesForPieceType(board, myPosition, moves);
-        }
-
-        if (this.pieceType == PieceType.KING && !this.hasMoved) {
-            addCastlingMoves(board, myPosition, moves);
-        }
+        MoveList moves = new MoveList(32);
+        pieceMoves(board, Bitboards.square(myPosition), moves);
+        return moves.toChessMoves();
+    }
 
+    /**
+     * Adds this piece's moves from the given square as packed moves, without allocating
+     */
+    void pieceMoves(ChessBoard board, int square, MoveList moves) {
         if (this.pieceType == PieceType.PAWN) {
-            addPawnMoves(board, myPosition, moves);
+            addPawnMoves(board, square, moves);
+            return;
         }
 
-        return moves;
+        calculateMovesForPieceType(board, square, moves);
     }
 
-    private void calculateMovesForPieceType(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
-        int[][] tuples = getMoveTuples(this.pieceType);
-        ChessPosition i;
-
-        for (int[] tuple : tuples) {
-            i = myPosition;
-            ChessMove j;
-            while (i.getRow() > 0 && i.getRow() < 9 && i.getColumn() > 0 && i.getColumn() < 9) {
-                i = new ChessPosition(i.getRow() + tuple[0], i.getColumn() + tuple[1]);
-
-                if (i.getRow() < 1 || i.getRow() > 8 || i.getColumn() < 1 || i.getColumn() > 8) {
-                    break;
-                }
-
-                j = new ChessMove(myPosition, i, null);
-                ChessPiece targetPiece = board.getPiece(i);
-
-                if (targetPiece != null) {
-                    if (targetPiece.getTeamColor() != this.getTeamColor()) {
-                        moves.add(j);
-                    }
-                    break;
-                } else {
-                    moves.add(j);
-                }
-
-                if (this.pieceType == PieceType.KING || this.pieceType == PieceType.KNIGHT) {
-                    break;
-                }
-            }
+    private void calculateMovesForPieceType(ChessBoard board, int square, MoveList moves) {
+        long targets = attacks(this.pieceType, square, board.occupied()) & ~board.pieces(this.teamColor);
+        while (targets != 0) {
+            moves.add(Move.of(square, Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
         }
     }
 
-    private int[][] getMoveTuples(PieceType pieceType) {
+    /**
+     * @return the squares a piece of this type on square attacks, given the board occupancy
+     */
+    static long attacks(PieceType pieceType, int square, long occupied) {
         return switch (pieceType) {
-            case BISHOP -> new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-            case QUEEN, KING -> new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}, {1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-            case ROOK -> new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
-            case KNIGHT -> new int[][]{{1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+            case BISHOP -> Attacks.bishop(square, occupied);
+            case QUEEN -> Attacks.queen(square, occupied);
+            case KING -> Attacks.king(square);
+            case ROOK -> Attacks.rook(square, occupied);
+            case KNIGHT -> Attacks.knight(square);
             default -> throw new IllegalArgumentException("Unknown piece type: " + pieceType);
         };
     }
 
-    private void addCastlingMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
-        // Castle Left
-        if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                board.getPosition(this).getColumn()-1)) == null) {
-            if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                    board.getPosition(this).getColumn()-2)) == null) {
-                leftCastleHelper(board, moves);
-            }
-        }
-
-        // Castle Right
-        if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                board.getPosition(this).getColumn()+1)) == null) {
-            if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                    board.getPosition(this).getColumn()+2)) == null) {
-                if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                        board.getPosition(this).getColumn()+3)) != null) {
-                    if (!board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                            board.getPosition(this).getColumn()+3)).getHasMoved()) {
-                        ChessMove castleMove = new ChessMove(board.getPosition(this),
-                                new ChessPosition(board.getPosition(this).getRow(),
-                                        board.getPosition(this).getColumn()+2), null);
-                        castleMove.setIsCastleMove(true);
-                        moves.add(castleMove);
-                    }
-                }
-            }
-        }
-    }
-
-    private void leftCastleHelper(ChessBoard board, Collection<ChessMove> moves) {
-        if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                board.getPosition(this).getColumn()-3)) == null) {
-            if (board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                    board.getPosition(this).getColumn()-4)) != null) {
-                if (!board.getPiece(new ChessPosition(board.getPosition(this).getRow(),
-                        board.getPosition(this).getColumn()-4)).getHasMoved()) {
-                    ChessMove castleMove = new ChessMove(board.getPosition(this),
-                            new ChessPosition(board.getPosition(this).getRow(),
-                                    board.getPosition(this).getColumn()-2), null);
-                    castleMove.setIsCastleMove(true);
-                    moves.add(castleMove);
-                }
-            }
-        }
-    }
-
-    private void addPawnMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+    private void addPawnMoves(ChessBoard board, int square, MoveList moves) {
         int direction = (this.teamColor == ChessGame.TeamColor.BLACK) ? -1 : 1;
+        int row = Bitboards.row(square) + direction;
+        if (row < 1 || row > 8) {
+            return;
+        }
 
         // Move forward one space
-        ChessPosition i = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn());
-        if (board.getPiece(i) == null && i.getRow() != 8 && i.getRow() != 1) {
-            moves.add(new ChessMove(myPosition, i, null));
-            i = new ChessPosition(i.getRow() + direction, i.getColumn());
-            if (board.getPiece(i) == null && ((i.getRow() == 4 && this.getTeamColor() == ChessGame.TeamColor.WHITE) ||
-                    (i.getRow() == 5 && this.getTeamColor() == ChessGame.TeamColor.BLACK))) {
-                moves.add(new ChessMove(myPosition, i, null));
+        int forward = square + 8 * direction;
+        if (board.getPiece(forward) == null) {
+            if (row == 8 || row == 1) {
+                addPawnPromotions(square, forward, moves);
+            } else {
+                moves.add(Move.of(square, forward));
+                int startRow = this.teamColor == ChessGame.TeamColor.WHITE ? 2 : 7;
+                int twice = forward + 8 * direction;
+                if (Bitboards.row(square) == startRow && board.getPiece(twice) == null) {
+                    moves.add(Move.of(square, twice));
+                }
             }
-        } else if (board.getPiece(i) == null && (i.getRow() == 8 || i.getRow() == 1)) {
-            addPawnPromotions(myPosition, i, moves);
         }
 
-        addPawnAttacks(board, myPosition, direction, moves);
-        addEnPassant(board, myPosition, direction, moves);
+        addPawnAttacks(board, square, row, moves);
     }
 
-    private void addPawnPromotions(ChessPosition startPos, ChessPosition endPos, Collection<ChessMove> moves) {
-        moves.add(new ChessMove(startPos, endPos, PieceType.QUEEN));
-        moves.add(new ChessMove(startPos, endPos, PieceType.ROOK));
-        moves.add(new ChessMove(startPos, endPos, PieceType.BISHOP));
-        moves.add(new ChessMove(startPos, endPos, PieceType.KNIGHT));
+    private static void addPawnPromotions(int from, int to, MoveList moves) {
+        moves.add(Move.promotion(from, to, PieceType.QUEEN));
+        moves.add(Move.promotion(from, to, PieceType.ROOK));
+        moves.add(Move.promotion(from, to, PieceType.BISHOP));
+        moves.add(Move.promotion(from, to, PieceType.KNIGHT));
     }
 
-    private void addPawnAttacks(ChessBoard board, ChessPosition myPosition, int direction, Collection<ChessMove> moves) {
-        ChessPosition i = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() - 1);
-        pawnAttackHelper(board, myPosition, moves, i);
-
-        i = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() + 1);
-        pawnAttackHelper(board, myPosition, moves, i);
-    }
-
-    private void pawnAttackHelper(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves, ChessPosition i) {
-        if (board.getPiece(i) != null && board.getPiece(i).getTeamColor() != this.getTeamColor()) {
-            if (i.getRow() == 1 || i.getRow() == 8) {
-                addPawnPromotions(myPosition, i, moves);
+    private void addPawnAttacks(ChessBoard board, int square, int row, MoveList moves) {
+        long targets = Attacks.pawn(Bitboards.colorIndex(this.teamColor), square)
+                & board.occupied() & ~board.pieces(this.teamColor);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (row == 1 || row == 8) {
+                addPawnPromotions(square, target, moves);
             } else {
-                moves.add(new ChessMove(myPosition, i, null));
+                moves.add(Move.of(square, target));
             }
         }
     }
-
-    private void addEnPassant(ChessBoard board, ChessPosition myPosition, int direction, Collection<ChessMove> moves) {
-        ChessPosition i = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() - 1);
-        ChessPiece passingEnemyPiece = board.getPiece(new ChessPosition(myPosition.getRow(), myPosition.getColumn() - 1));
-        if (passingEnemyPiece != null && passingEnemyPiece.getJustDoubleMoved() && passingEnemyPiece.getTeamColor() != this.getTeamColor()) {
-            ChessMove enPassantMove = new ChessMove(myPosition, i, null);
-            enPassantMove.setIsEnPassantMove(true);
-            moves.add(enPassantMove);
-        }
-
-        i = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() + 1);
-        passingEnemyPiece = board.getPiece(new ChessPosition(myPosition.getRow(), myPosition.getColumn() + 1));
-        if (passingEnemyPiece != null && passingEnemyPiece.getJustDoubleMoved() && passingEnemyPiece.getTeamColor() != this.getTeamColor()) {
-            ChessMove enPassantMove = new ChessMove(myPosition, i, null);
-            enPassantMove.setIsEnPassantMove(true);
-            moves.add(enPassantMove);
-        }
-    }
-
-} //
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ * <p>
+ * Piece placement, side to move, castling rights and the en passant square are
+ * supported. The halfmove and fullmove counters are not tracked by ChessGame, so they
+ * are ignored on load and written as "0 1".
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    public static ChessGame load(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Not a FEN position: " + fen);
+        }
+
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                row--;
+                col = 1;
+            } else if (Character.isDigit(c)) {
+                col += c - '0';
+            } else {
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE
+                        : ChessGame.TeamColor.BLACK;
+                board.addPiece(new ChessPosition(row, col), ChessPiece.of(color, pieceType(c)));
+                col++;
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(fields[1].equals("b") ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+
+        String castling = fields.length > 2 ? fields[2] : "-";
+        int rights = 0;
+        rights |= castling.indexOf('K') >= 0 ? ChessGame.WHITE_KINGSIDE : 0;
+        rights |= castling.indexOf('Q') >= 0 ? ChessGame.WHITE_QUEENSIDE : 0;
+        rights |= castling.indexOf('k') >= 0 ? ChessGame.BLACK_KINGSIDE : 0;
+        rights |= castling.indexOf('q') >= 0 ? ChessGame.BLACK_QUEENSIDE : 0;
+        game.setCastlingRights(rights);
+
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+        if (!enPassant.equals("-")) {
+            game.setEnPassantSquare(Bitboards.square(enPassant.charAt(1) - '0', enPassant.charAt(0) - 'a' + 1));
+        }
+        return game;
+    }
+
+    public static String toFen(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(pieceChar(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = game.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & ChessGame.WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((rights & ChessGame.WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((rights & ChessGame.BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((rights & ChessGame.BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+
+        int epSquare = game.getEnPassantSquare();
+        fen.append(' ').append(epSquare == Bitboards.NO_SQUARE ? "-" : Move.squareName(epSquare));
+        return fen.append(" 0 1").toString();
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'k' -> ChessPiece.PieceType.KING;
+            default -> throw new IllegalArgumentException("Unknown piece: " + c);
+        };
+    }
+
+    private static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case PAWN -> 'p';
+            case KNIGHT -> 'n';
+            case BISHOP -> 'b';
+            case ROOK -> 'r';
+            case QUEEN -> 'q';
+            case KING -> 'k';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+}
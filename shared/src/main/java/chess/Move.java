@@ -0,0 +1,103 @@
+package chess;
+
+/**
+ * Moves packed into a single int, used internally so move generation and search do
+ * not allocate a ChessMove per move.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square, bits 12-14 the promotion
+ * piece (PieceType ordinal + 1, or 0 for none) and the bits above that the special
+ * move flags.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CASTLE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int promotion(int from, int to, ChessPiece.PieceType promotion) {
+        return from | (to << 6) | ((promotion.ordinal() + 1) << 12);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotionType(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return True if the packed move has the same start, end and promotion as the ChessMove
+     */
+    public static boolean matches(int move, ChessMove chessMove) {
+        return from(move) == Bitboards.square(chessMove.getStartPosition())
+                && to(move) == Bitboards.square(chessMove.getEndPosition())
+                && promotionType(move) == chessMove.getPromotionPiece();
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or e7e8q
+     */
+    public static String toString(int move) {
+        String text = squareName(from(move)) + squareName(to(move));
+        ChessPiece.PieceType promotion = promotionType(move);
+        if (promotion != null) {
+            text += switch (promotion) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                default -> "n";
+            };
+        }
+        return text;
+    }
+
+    /**
+     * @return the algebraic name of a square, such as e4
+     */
+    public static String squareName(int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('1' + (square >>> 3));
+    }
+
+    public static ChessMove toChessMove(int move) {
+        ChessMove chessMove = new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)),
+                promotionType(move));
+        chessMove.setIsCastleMove(isCastle(move));
+        chessMove.setIsEnPassantMove(isEnPassant(move));
+        return chessMove;
+    }
+}
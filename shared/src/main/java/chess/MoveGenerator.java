@@ -0,0 +1,302 @@
+package chess;
+
+/**
+ * Generates strictly legal moves.
+ * <p>
+ * Checking pieces and pinned pieces are worked out once per call, so each candidate
+ * move is accepted or rejected with mask operations instead of a make-and-test. Only
+ * king moves and en passant captures, whose legality depends on pieces leaving the
+ * board, need an attack test of their own.
+ */
+final class MoveGenerator {
+
+    /** Every legal move */
+    static final int ALL = 0;
+    /** Captures, en passant and promotions */
+    static final int TACTICAL = 1;
+    /** Everything else: non-capturing moves that do not promote, and castling */
+    static final int QUIET = 2;
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move for the pieces of one color standing on fromMask
+     *
+     * @param board          the position
+     * @param us             color index of the side whose moves are generated
+     * @param fromMask       squares whose pieces should be considered
+     * @param kind           {@link #ALL}, {@link #TACTICAL} or {@link #QUIET}
+     * @param castlingRights castling rights still available, as ChessGame castling bits
+     * @param epSquare       square a pawn may capture onto en passant, or NO_SQUARE
+     * @param moves          receives each packed move
+     */
+    static void legalMoves(ChessBoard board, int us, long fromMask, int kind, int castlingRights, int epSquare,
+                           MoveVisitor moves) {
+        int them = us ^ 1;
+        long own = board.colorBitboards[us];
+        long occupied = board.occupied;
+        int king = board.kingSquare(us);
+        long kindMask = kind == TACTICAL ? board.colorBitboards[them] : kind == QUIET ? ~occupied : -1L;
+
+        long checkers = 0L;
+        long pinned = 0L;
+        if (king != Bitboards.NO_SQUARE) {
+            checkers = board.attackersTo(king, them, occupied);
+            pinned = pinnedPieces(board, us, king);
+            if ((fromMask & Bitboards.bit(king)) != 0) {
+                kingMoves(board, us, king, checkers, kindMask, kind == TACTICAL ? 0 : castlingRights, moves);
+            }
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        long targetMask = ~own;
+        if (checkers != 0) {
+            targetMask &= checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        }
+
+        long pieces = own & fromMask & ~board.pieceBitboards[Bitboards.pieceIndex(us, ChessPiece.PieceType.KING)];
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            long allowed = targetMask;
+            if ((pinned & Bitboards.bit(from)) != 0) {
+                allowed &= Attacks.line(king, from);
+            }
+
+            ChessPiece.PieceType type = board.squares[from].getPieceType();
+            if (type == ChessPiece.PieceType.PAWN) {
+                pawnMoves(board, us, from, allowed, kind, king, epSquare, moves);
+            } else {
+                addMoves(from, ChessPiece.attacks(type, from, occupied) & allowed & kindMask, moves);
+            }
+        }
+    }
+
+    /**
+     * Checks a single move without generating the others: the move must be one the piece
+     * could make on this board, and the king must not be attacked once it is made. The
+     * attack test runs against the occupancy after the move rather than on the board
+     * itself, so nothing is moved.
+     *
+     * @param promotion the piece a pawn promotes to, or null
+     * @return the packed move with its castling or en passant flag set, or Move.NONE if
+     * the move is not legal
+     */
+    static int legalMove(ChessBoard board, int us, int castlingRights, int epSquare, int from, int to,
+                         ChessPiece.PieceType promotion) {
+        ChessPiece piece = board.squares[from];
+        if (piece == null || Bitboards.colorIndex(piece.getTeamColor()) != us
+                || (board.colorBitboards[us] & Bitboards.bit(to)) != 0) {
+            return Move.NONE;
+        }
+
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (type == ChessPiece.PieceType.PAWN) {
+            return legalPawnMove(board, us, epSquare, from, to, promotion);
+        }
+        if (promotion != null) {
+            return Move.NONE;
+        }
+        if (type == ChessPiece.PieceType.KING) {
+            if ((Attacks.king(from) & Bitboards.bit(to)) != 0) {
+                long withoutKing = board.occupied & ~Bitboards.bit(from);
+                return board.isSquareAttacked(to, us ^ 1, withoutKing) ? Move.NONE : Move.of(from, to);
+            }
+            return legalCastle(board, us, castlingRights, from, to);
+        }
+        if ((ChessPiece.attacks(type, from, board.occupied) & Bitboards.bit(to)) == 0) {
+            return Move.NONE;
+        }
+        return leavesKingSafe(board, us, from, to, to) ? Move.of(from, to) : Move.NONE;
+    }
+
+    private static int legalPawnMove(ChessBoard board, int us, int epSquare, int from, int to,
+                                     ChessPiece.PieceType promotion) {
+        int forward = us == Bitboards.WHITE ? 8 : -8;
+        int startRow = us == Bitboards.WHITE ? 2 : 7;
+        boolean promotes = to < 8 || to >= 56;
+        if (promotes != (promotion != null) || promotion == ChessPiece.PieceType.KING
+                || promotion == ChessPiece.PieceType.PAWN) {
+            return Move.NONE;
+        }
+
+        int move = promotes ? Move.promotion(from, to, promotion) : Move.of(from, to);
+        int captured = to;
+        if (to == from + forward) {
+            if ((board.occupied & Bitboards.bit(to)) != 0) {
+                return Move.NONE;
+            }
+        } else if (to == from + 2 * forward) {
+            if (Bitboards.row(from) != startRow
+                    || (board.occupied & (Bitboards.bit(from + forward) | Bitboards.bit(to))) != 0) {
+                return Move.NONE;
+            }
+        } else if ((Attacks.pawn(us, from) & Bitboards.bit(to)) != 0) {
+            if (to == epSquare) {
+                captured = to - forward;
+                move = Move.of(from, to, Move.EN_PASSANT);
+            } else if ((board.colorBitboards[us ^ 1] & Bitboards.bit(to)) == 0) {
+                return Move.NONE;
+            }
+        } else {
+            return Move.NONE;
+        }
+        return leavesKingSafe(board, us, from, to, captured) ? move : Move.NONE;
+    }
+
+    private static int legalCastle(ChessBoard board, int us, int castlingRights, int from, int to) {
+        int home = us == Bitboards.WHITE ? 4 : 60;
+        if (from != home || (to != home + 2 && to != home - 2)) {
+            return Move.NONE;
+        }
+        boolean kingSide = to > from;
+        int right = us == Bitboards.WHITE
+                ? (kingSide ? ChessGame.WHITE_KINGSIDE : ChessGame.WHITE_QUEENSIDE)
+                : (kingSide ? ChessGame.BLACK_KINGSIDE : ChessGame.BLACK_QUEENSIDE);
+        if ((castlingRights & right) == 0 || board.isSquareAttacked(home, us ^ 1)) {
+            return Move.NONE;
+        }
+        int passing = kingSide ? home + 1 : home - 1;
+        int rook = kingSide ? home + 3 : home - 4;
+        return canCastle(board, us, home, passing, to, rook) ? Move.of(from, to, Move.CASTLE) : Move.NONE;
+    }
+
+    /**
+     * @return true if the king is not attacked after a piece moves from one square to
+     * another, taking whatever stands on captured
+     */
+    private static boolean leavesKingSafe(ChessBoard board, int us, int from, int to, int captured) {
+        int king = board.kingSquare(us);
+        if (king == Bitboards.NO_SQUARE) {
+            return true;
+        }
+        long after = board.occupied & ~Bitboards.bit(from) & ~Bitboards.bit(captured) | Bitboards.bit(to);
+        return (board.attackersTo(king, us ^ 1, after) & ~Bitboards.bit(captured)) == 0;
+    }
+
+    private static long pinnedPieces(ChessBoard board, int us, int king) {
+        int base = (us ^ 1) * 6;
+        long queens = board.pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long snipers = (Attacks.rook(king, 0L)
+                & (board.pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (Attacks.bishop(king, 0L)
+                & (board.pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & board.occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.colorBitboards[us];
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    private static void kingMoves(ChessBoard board, int us, int king, long checkers, long kindMask,
+                                  int castlingRights, MoveVisitor moves) {
+        int them = us ^ 1;
+        long withoutKing = board.occupied & ~Bitboards.bit(king);
+        long targets = Attacks.king(king) & ~board.colorBitboards[us] & kindMask;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!board.isSquareAttacked(to, them, withoutKing)) {
+                moves.visit(Move.of(king, to));
+            }
+        }
+
+        if (checkers != 0) {
+            return;
+        }
+        int home = us == Bitboards.WHITE ? 4 : 60;
+        int kingSide = us == Bitboards.WHITE ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenSide = us == Bitboards.WHITE ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+        if (king != home) {
+            return;
+        }
+        if ((castlingRights & kingSide) != 0 && canCastle(board, us, home, home + 1, home + 2, home + 3)) {
+            moves.visit(Move.of(home, home + 2, Move.CASTLE));
+        }
+        if ((castlingRights & queenSide) != 0 && canCastle(board, us, home, home - 1, home - 2, home - 4)) {
+            moves.visit(Move.of(home, home - 2, Move.CASTLE));
+        }
+    }
+
+    /**
+     * @return true if the rook is in place, the squares between it and the king are empty
+     * and the king would not pass through or land on an attacked square. Whether the king
+     * is in check is left to the caller.
+     */
+    private static boolean canCastle(ChessBoard board, int us, int king, int passing, int to, int rook) {
+        int them = us ^ 1;
+        long rooks = board.pieceBitboards[Bitboards.pieceIndex(us, ChessPiece.PieceType.ROOK)];
+        if ((rooks & Bitboards.bit(rook)) == 0 || (Attacks.between(king, rook) & board.occupied) != 0) {
+            return false;
+        }
+        return !board.isSquareAttacked(passing, them) && !board.isSquareAttacked(to, them);
+    }
+
+    private static void pawnMoves(ChessBoard board, int us, int from, long allowed, int kind, int king,
+                                  int epSquare, MoveVisitor moves) {
+        int forward = us == Bitboards.WHITE ? 8 : -8;
+        int startRow = us == Bitboards.WHITE ? 2 : 7;
+        long empty = ~board.occupied;
+
+        // Pushes are quiet unless they promote
+        int single = from + forward;
+        if (single >= 0 && single < 64 && (empty & Bitboards.bit(single)) != 0) {
+            boolean promotes = single < 8 || single >= 56;
+            if ((allowed & Bitboards.bit(single)) != 0 && kind != (promotes ? QUIET : TACTICAL)) {
+                addPawnMove(from, single, moves);
+            }
+            int twice = single + forward;
+            if (kind != TACTICAL && Bitboards.row(from) == startRow
+                    && (empty & allowed & Bitboards.bit(twice)) != 0) {
+                addPawnMove(from, twice, moves);
+            }
+        }
+        if (kind == QUIET) {
+            return;
+        }
+
+        long captures = Attacks.pawn(us, from) & board.colorBitboards[us ^ 1] & allowed;
+        while (captures != 0) {
+            addPawnMove(from, Long.numberOfTrailingZeros(captures), moves);
+            captures &= captures - 1;
+        }
+
+        if (epSquare != Bitboards.NO_SQUARE && (Attacks.pawn(us, from) & Bitboards.bit(epSquare)) != 0) {
+            int captured = epSquare - forward;
+            long after = board.occupied ^ Bitboards.bit(from) ^ Bitboards.bit(captured) | Bitboards.bit(epSquare);
+            if (king == Bitboards.NO_SQUARE || !board.isSquareAttacked(king, us ^ 1, after)) {
+                moves.visit(Move.of(from, epSquare, Move.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addPawnMove(int from, int to, MoveVisitor moves) {
+        if (to < 8 || to >= 56) {
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.visit(Move.promotion(from, to, promotion));
+            }
+        } else {
+            moves.visit(Move.of(from, to));
+        }
+    }
+
+    private static void addMoves(int from, long targets, MoveVisitor moves) {
+        while (targets != 0) {
+            moves.visit(Move.of(from, Long.numberOfTrailingZeros(targets)));
+            targets &= targets - 1;
+        }
+    }
+}
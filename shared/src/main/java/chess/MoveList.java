@@ -0,0 +1,78 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A growable list of packed moves. Lists are meant to be cleared and reused between
+ * generations rather than reallocated.
+ */
+public final class MoveList implements MoveVisitor {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    @Override
+    public void visit(int move) {
+        add(move);
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the moves as ChessMove objects, for handing out through the public API
+     */
+    public ArrayList<ChessMove> toChessMoves() {
+        ArrayList<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+
+    /**
+     * @return the moves starting on one square as ChessMove objects
+     */
+    public ArrayList<ChessMove> toChessMoves(int from) {
+        ArrayList<ChessMove> chessMoves = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (Move.from(moves[i]) == from) {
+                chessMoves.add(Move.toChessMove(moves[i]));
+            }
+        }
+        return chessMoves;
+    }
+}
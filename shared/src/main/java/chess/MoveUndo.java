@@ -0,0 +1,20 @@
+package chess;
+
+/**
+ * Everything ChessGame needs to take back a move it has applied.
+ * <p>
+ * Records are pooled by the game and overwritten in place, so probing a move
+ * and taking it back does not allocate.
+ */
+final class MoveUndo {
+
+    int move;
+    int from;
+    int to;
+    ChessPiece piece;
+    ChessPiece captured;
+    int capturedSquare;
+    int castlingRights;
+    int enPassantSquare;
+    ChessGame.TeamColor turn;
+}
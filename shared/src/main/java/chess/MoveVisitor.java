@@ -0,0 +1,11 @@
+package chess;
+
+/**
+ * Receives packed moves one at a time as they are generated, so a caller can count,
+ * filter or stop caring about moves without collecting them into a list first.
+ */
+@FunctionalInterface
+public interface MoveVisitor {
+
+    void visit(int move);
+}
@@ -0,0 +1,135 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth.
+ * <p>
+ * Perft numbers for well-known positions are published, so they check move generation
+ * and make/unmake far more deeply than the unit tests, and the time taken gives a
+ * throughput figure for the engine. Root moves are split across a ForkJoinPool, each on
+ * its own copy of the game.
+ * <p>
+ * Run from the command line with a FEN string and a depth to print the divide (node
+ * count under each root move), the total and the nodes per second.
+ */
+public final class Perft {
+
+    /**
+     * @param nodes  leaf nodes at the requested depth
+     * @param nanos  wall-clock time taken
+     * @param divide node count under each root move, keyed by coordinate notation
+     */
+    public record Result(long nodes, long nanos, Map<String, Long> divide) {
+        public long nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaf nodes on the calling thread, leaving the game as it was
+     */
+    public static long perft(ChessGame game, int depth) {
+        MoveList[] lists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return count(game, depth, lists);
+    }
+
+    /**
+     * Counts leaf nodes in the common pool, reporting the count under each root move
+     */
+    public static Result divide(ChessGame game, int depth) {
+        return divide(game, depth, ForkJoinPool.commonPool());
+    }
+
+    public static Result divide(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+        long start = System.nanoTime();
+        MoveList rootMoves = new MoveList();
+        game.allLegalMoves(game.getTeamTurn(), rootMoves);
+
+        List<RootTask> tasks = new ArrayList<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootTask(game.copy(), rootMoves.get(i), depth - 1));
+        }
+
+        Map<String, Long> divide = new LinkedHashMap<>();
+        long nodes = pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                invokeAll(tasks);
+                long total = 0;
+                for (RootTask task : tasks) {
+                    long count = task.join();
+                    divide.put(Move.toString(task.move), count);
+                    total += count;
+                }
+                return total;
+            }
+        });
+        return new Result(nodes, System.nanoTime() - start, divide);
+    }
+
+    private static long count(ChessGame game, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.allLegalMoves(game.getTeamTurn(), moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            nodes += count(game, depth - 1, lists);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int move;
+        private final int depth;
+
+        RootTask(ChessGame game, int move, int depth) {
+            this.game = game;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            game.applyMove(move);
+            return perft(game, depth);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Perft \"<fen>\" <depth>");
+            return;
+        }
+        Result result = divide(Fen.load(args[0]), Integer.parseInt(args[1]));
+        result.divide().forEach((move, count) -> System.out.println(move + ": " + count));
+        System.out.println();
+        System.out.println("Nodes: " + result.nodes());
+        System.out.printf("Time: %.3f s%n", result.nanos() / 1e9);
+        System.out.println("Nodes/second: " + result.nodesPerSecond());
+    }
+}
@@ -0,0 +1,14 @@
+package chess;
+
+/**
+ * The legal moves and check status of one side in one position, as cached by ChessGame
+ * so that the status queries and validMoves calls made between two moves share a
+ * single generation.
+ */
+final class PositionStatus {
+
+    final MoveList moves = new MoveList();
+    long key;
+    boolean valid;
+    boolean inCheck;
+}
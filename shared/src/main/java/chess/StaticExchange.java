@@ -0,0 +1,140 @@
+package chess;
+
+/**
+ * Static exchange evaluation: the material a capture wins or loses once every piece
+ * bearing on the target square has had its chance to recapture.
+ * <p>
+ * Each side recaptures with its least valuable attacker and may stop whenever going on
+ * would lose material. Nothing is moved on the board; the exchange is played out on an
+ * occupancy bitboard, and sliders lined up behind a piece that has just captured (x-rays)
+ * join in as the squares in front of them empty. Pins are not taken into account.
+ */
+public final class StaticExchange {
+
+    /**
+     * Length of the scratch array an exchange is worked out in, one entry per capture plus
+     * one. That covers any position with legal piece counts; on a crowded board set up by
+     * hand the exchange is cut off once the array is full, as if the side to move declined
+     * to recapture.
+     */
+    public static final int SCRATCH_LENGTH = 32;
+
+    // Cheapest first, so the first type with an attacker is the one to recapture with
+    private static final ChessPiece.PieceType[] BY_VALUE = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING};
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @return the material the side making the move can expect to come away with, in
+     * centipawns; negative if the move loses material, 0 for a quiet move to a safe square
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return evaluate(board, promotion == null ? Move.of(from, to) : Move.promotion(from, to, promotion));
+    }
+
+    /**
+     * @param move a packed move for the piece on its start square; en passant captures are
+     *             recognised whether or not they carry their flag
+     */
+    public static int evaluate(ChessBoard board, int move) {
+        return evaluate(board, move, new int[SCRATCH_LENGTH]);
+    }
+
+    /**
+     * Works out the exchange in the caller's array, so that a search calling this at
+     * every node does not allocate
+     *
+     * @param gain scratch space, normally {@link #SCRATCH_LENGTH} entries; its contents are
+     *             overwritten, and an exchange longer than the array is cut off at its end
+     */
+    public static int evaluate(ChessBoard board, int move, int[] gain) {
+        if (gain.length < 2) {
+            throw new IllegalArgumentException("Scratch array needs at least 2 entries, not " + gain.length);
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = board.squares[from];
+        if (mover == null) {
+            throw new IllegalArgumentException("No piece on " + Move.squareName(from));
+        }
+        int us = Bitboards.colorIndex(mover.getTeamColor());
+        long occupancy = board.occupied ^ Bitboards.bit(from);
+
+        gain[0] = 0;
+        ChessPiece victim = board.squares[to];
+        if (victim != null) {
+            gain[0] = value(victim.getPieceType());
+        } else if (mover.getPieceType() == ChessPiece.PieceType.PAWN && (from & 7) != (to & 7)) {
+            gain[0] = value(ChessPiece.PieceType.PAWN);
+            occupancy ^= Bitboards.bit(us == Bitboards.WHITE ? to - 8 : to + 8);
+        }
+
+        // Value of the piece now standing on the target square, which the next capture takes
+        int onSquare = value(mover.getPieceType());
+        ChessPiece.PieceType promotion = Move.promotionType(move);
+        if (promotion != null) {
+            gain[0] += value(promotion) - value(ChessPiece.PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+
+        long rooks = pieces(board, ChessPiece.PieceType.ROOK) | pieces(board, ChessPiece.PieceType.QUEEN);
+        long bishops = pieces(board, ChessPiece.PieceType.BISHOP) | pieces(board, ChessPiece.PieceType.QUEEN);
+        long attackers = (board.attackersTo(to, Bitboards.WHITE, occupancy)
+                | board.attackersTo(to, Bitboards.BLACK, occupancy));
+
+        // gain[d] is what the side making capture d wins if the exchange stops after it
+        int depth = 0;
+        int side = us;
+        while (true) {
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            if (depth == gain.length - 1) {
+                break;
+            }
+            side ^= 1;
+            long own = attackers & board.colorBitboards[side];
+            if (own == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = null;
+            long attacker = 0L;
+            for (ChessPiece.PieceType candidate : BY_VALUE) {
+                attacker = own & board.pieceBitboards[Bitboards.pieceIndex(side, candidate)];
+                if (attacker != 0) {
+                    type = candidate;
+                    break;
+                }
+            }
+            // A king cannot recapture onto a square the other side still covers
+            if (type == ChessPiece.PieceType.KING && (attackers & board.colorBitboards[side ^ 1]) != 0) {
+                break;
+            }
+            onSquare = value(type);
+
+            occupancy ^= Long.lowestOneBit(attacker);
+            attackers |= (Attacks.rook(to, occupancy) & rooks) | (Attacks.bishop(to, occupancy) & bishops);
+            attackers &= occupancy;
+        }
+
+        // The last entry is a capture nobody made; fold the rest back to the first
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private static long pieces(ChessBoard board, ChessPiece.PieceType type) {
+        return board.pieceBitboards[Bitboards.pieceIndex(Bitboards.WHITE, type)]
+                | board.pieceBitboards[Bitboards.pieceIndex(Bitboards.BLACK, type)];
+    }
+
+    private static int value(ChessPiece.PieceType type) {
+        return type == ChessPiece.PieceType.KING ? 20_000 : PieceSquareTables.value(type);
+    }
+}
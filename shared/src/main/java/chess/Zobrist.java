@@ -0,0 +1,83 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of chess positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, plus keys for black
+ * to move, the castling rights and the en passant file. Each term can be XORed in or
+ * out as a move changes it, so keys are kept up to date incrementally. The keys come
+ * from a fixed seed, so a position hashes to the same value in every process.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x9E37_79B9_7F4A_7C15L;
+
+    private static final long[][] PIECES = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long state = SEED;
+        for (long[] piece : PIECES) {
+            for (int square = 0; square < 64; square++) {
+                state = splitMix(state);
+                piece[square] = mix(state);
+            }
+        }
+        // Each castling right gets its own key, and every combination is the XOR of its rights
+        long[] rights = new long[4];
+        for (int i = 0; i < 4; i++) {
+            state = splitMix(state);
+            rights[i] = mix(state);
+        }
+        for (int mask = 0; mask < 16; mask++) {
+            for (int i = 0; i < 4; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            state = splitMix(state);
+            EN_PASSANT[file] = mix(state);
+        }
+        state = splitMix(state);
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex bitboard index of the piece, as from Bitboards.pieceIndex
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECES[pieceIndex][square];
+    }
+
+    public static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+
+    /**
+     * @return the key for an en passant square, or 0 if there is none
+     */
+    public static long enPassant(int square) {
+        return square == Bitboards.NO_SQUARE ? 0L : EN_PASSANT[square & 7];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    private static long splitMix(long state) {
+        return state + 0x9E37_79B9_7F4A_7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D0_49BB_1331_11EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,157 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation of a position in centipawns.
+ * <p>
+ * Material and piece-square values come from the totals the board keeps up to date as
+ * moves are made, so they cost nothing here. Pawn structure (doubled, isolated and passed
+ * pawns) and king safety (pawn shield, open files and pieces bearing on the king) are
+ * worked out from the bitboards. Middlegame and endgame scores are blended by the game
+ * phase, and king safety counts in the middlegame only.
+ */
+public final class Evaluator {
+
+    private static final long FILE_A = 0x0101_0101_0101_0101L;
+
+    private static final int DOUBLED_PAWN = -15;
+    private static final int ISOLATED_PAWN = -12;
+    private static final int[] PASSED_PAWN_MG = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_PAWN_EG = {0, 10, 20, 35, 60, 90, 130, 0};
+
+    private static final int SHIELD_PAWN = 12;
+    private static final int OPEN_FILE_NEAR_KING = -20;
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] KING_ATTACK_WEIGHTS = {0, 4, 2, 2, 3, 0};
+    private static final int[] KING_ATTACK_PENALTY = {0, 0, 5, 12, 22, 35, 50, 70, 95, 120, 150, 180, 210};
+    private static final ChessPiece.PieceType[] KING_ATTACKERS = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[][] PASSED_MASKS = new long[2][64];
+    private static final long[][] SHIELD_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = FILE_A << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0L) | (file < 7 ? FILES[file + 1] : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            long files = FILES[file] | ADJACENT_FILES[file];
+            long above = square >= 56 ? 0L : -1L << (square - file + 8);
+            long below = square < 8 ? 0L : -1L >>> (64 - (square - file));
+            PASSED_MASKS[Bitboards.WHITE][square] = files & above;
+            PASSED_MASKS[Bitboards.BLACK][square] = files & below;
+
+            long twoRanksAbove = above & ~(square >= 40 ? 0L : -1L << (square - file + 24));
+            long twoRanksBelow = below & (square < 16 ? -1L : -1L << (square - file - 16));
+            SHIELD_MASKS[Bitboards.WHITE][square] = files & twoRanksAbove;
+            SHIELD_MASKS[Bitboards.BLACK][square] = files & twoRanksBelow;
+        }
+    }
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the score of the position for the side to move, in centipawns
+     */
+    public static int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int mg = board.getMiddlegameScore();
+        int eg = board.getEndgameScore();
+
+        for (int color = Bitboards.WHITE; color <= Bitboards.BLACK; color++) {
+            int sign = color == Bitboards.WHITE ? 1 : -1;
+            long pawns = board.pieces(Bitboards.color(color), ChessPiece.PieceType.PAWN);
+            long enemyPawns = board.pieces(Bitboards.color(color ^ 1), ChessPiece.PieceType.PAWN);
+
+            int structure = pawnStructure(pawns);
+            mg += sign * structure;
+            eg += sign * structure;
+
+            long candidates = pawns;
+            while (candidates != 0) {
+                int square = Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if ((PASSED_MASKS[color][square] & enemyPawns) == 0) {
+                    int rank = color == Bitboards.WHITE ? square >>> 3 : 7 - (square >>> 3);
+                    mg += sign * PASSED_PAWN_MG[rank];
+                    eg += sign * PASSED_PAWN_EG[rank];
+                }
+            }
+
+            mg += sign * kingSafety(board, color, pawns);
+        }
+
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (mg * phase + eg * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    private static int pawnStructure(long pawns) {
+        int score = 0;
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(pawns & FILES[file]);
+            if (count == 0) {
+                continue;
+            }
+            score += (count - 1) * DOUBLED_PAWN;
+            if ((pawns & ADJACENT_FILES[file]) == 0) {
+                score += count * ISOLATED_PAWN;
+            }
+        }
+        return score;
+    }
+
+    private static int kingSafety(ChessBoard board, int color, long pawns) {
+        int king = board.kingSquare(color);
+        if (king == Bitboards.NO_SQUARE) {
+            return 0;
+        }
+
+        int score = Long.bitCount(SHIELD_MASKS[color][king] & pawns) * SHIELD_PAWN;
+        int file = king & 7;
+        for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) {
+            if ((pawns & FILES[f]) == 0) {
+                score += OPEN_FILE_NEAR_KING;
+            }
+        }
+
+        // Weigh the enemy pieces that attack the squares around the king
+        long zone = Attacks.king(king) | Bitboards.bit(king);
+        long occupied = board.occupied();
+        int enemy = color ^ 1;
+        int units = 0;
+        for (ChessPiece.PieceType type : KING_ATTACKERS) {
+            long attackers = board.pieces(Bitboards.color(enemy), type);
+            while (attackers != 0) {
+                int square = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+                if ((attacks(type, square, occupied) & zone) != 0) {
+                    units += KING_ATTACK_WEIGHTS[type.ordinal()];
+                }
+            }
+        }
+        return score - KING_ATTACK_PENALTY[Math.min(units, KING_ATTACK_PENALTY.length - 1)];
+    }
+
+    private static long attacks(ChessPiece.PieceType type, int square, long occupied) {
+        return switch (type) {
+            case QUEEN -> Attacks.queen(square, occupied);
+            case ROOK -> Attacks.rook(square, occupied);
+            case BISHOP -> Attacks.bishop(square, occupied);
+            default -> Attacks.knight(square);
+        };
+    }
+}
@@ -0,0 +1,230 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceSquareTables;
+import chess.StaticExchange;
+
+/**
+ * Hands out the moves of one node in the order the search should try them, generating
+ * each group only when the one before it is used up: the hash move, then captures and
+ * promotions by most valuable victim and least valuable attacker, then the killer moves,
+ * then the remaining quiet moves by their history score, and last the captures that lose
+ * material according to {@link StaticExchange}. A node that is cut off early never
+ * generates its quiet moves at all.
+ * <p>
+ * The hash move and killers come from other positions, so each is checked for legality
+ * before it is returned. Within a group the best remaining move is selected on each call
+ * rather than sorting up front, since most nodes stop after the first few moves. A picker
+ * is reused from node to node at the same ply and does not allocate once its lists have
+ * grown.
+ */
+final class MovePicker {
+
+    private static final int HASH = 0;
+    private static final int GENERATE_TACTICAL = 1;
+    private static final int TACTICAL = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIET = 4;
+    private static final int QUIET = 5;
+    private static final int BAD_TACTICAL = 6;
+    private static final int DONE = 7;
+
+    private final MoveList tactical = new MoveList(32);
+    private final MoveList quiet = new MoveList(64);
+    private int[] tacticalScores = new int[32];
+    private int[] quietScores = new int[64];
+    private final int[] exchangeGains = new int[StaticExchange.SCRATCH_LENGTH];
+
+    private ChessGame game;
+    private boolean tacticalOnly;
+    private int hashMove;
+    private int killer1;
+    private int killer2;
+    private int[] history;
+
+    private int stage;
+    private int tacticalIndex;
+    private int quietIndex;
+    private int killerIndex;
+
+    /**
+     * Prepares to hand out every legal move of the position
+     *
+     * @param hashMove move to try first, or Move.NONE
+     * @param killers  quiet moves that caused cutoffs at the same ply
+     * @param history  cutoff scores of the side to move, indexed by from * 64 + to
+     */
+    void init(ChessGame game, int hashMove, int[] killers, int[] history) {
+        this.game = game;
+        this.tacticalOnly = false;
+        this.hashMove = hashMove;
+        this.killer1 = killers[0];
+        this.killer2 = killers[1];
+        this.history = history;
+        this.stage = HASH;
+    }
+
+    /**
+     * Prepares to hand out only the captures and promotions of the position that do not
+     * lose material, in MVV-LVA order, for the quiescence search
+     */
+    void initTactical(ChessGame game) {
+        this.game = game;
+        this.tacticalOnly = true;
+        this.hashMove = Move.NONE;
+        this.stage = GENERATE_TACTICAL;
+    }
+
+    /**
+     * @return the next move to try, or Move.NONE when there are no more
+     */
+    int next() {
+        switch (stage) {
+            case HASH:
+                stage = GENERATE_TACTICAL;
+                if (game.isLegal(hashMove)) {
+                    return hashMove;
+                }
+                // fall through
+            case GENERATE_TACTICAL:
+                tactical.clear();
+                game.tacticalMoves(game.getTeamTurn(), tactical);
+                tacticalScores = scoreTactical(tactical, tacticalScores);
+                tacticalIndex = 0;
+                stage = TACTICAL;
+                // fall through
+            case TACTICAL:
+                while (tacticalIndex < tactical.size()) {
+                    int move = selectBest(tactical, tacticalScores, tacticalIndex);
+                    if (tacticalScores[tacticalIndex] < 0) {
+                        // Only losing captures are left; they wait until after the quiet moves
+                        break;
+                    }
+                    tacticalIndex++;
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                if (tacticalOnly) {
+                    stage = DONE;
+                    return Move.NONE;
+                }
+                stage = KILLERS;
+                killerIndex = 0;
+                // fall through
+            case KILLERS:
+                while (killerIndex < 2) {
+                    int killer = killerIndex++ == 0 ? killer1 : killer2;
+                    if (killer != hashMove && isQuiet(killer) && game.isLegal(killer)) {
+                        return killer;
+                    }
+                }
+                stage = GENERATE_QUIET;
+                // fall through
+            case GENERATE_QUIET:
+                quiet.clear();
+                game.quietMoves(game.getTeamTurn(), quiet);
+                quietScores = scoreQuiet(quiet, quietScores);
+                quietIndex = 0;
+                stage = QUIET;
+                // fall through
+            case QUIET:
+                while (quietIndex < quiet.size()) {
+                    int move = selectBest(quiet, quietScores, quietIndex++);
+                    if (move != hashMove && move != killer1 && move != killer2) {
+                        return move;
+                    }
+                }
+                stage = BAD_TACTICAL;
+                // fall through
+            case BAD_TACTICAL:
+                while (tacticalIndex < tactical.size()) {
+                    int move = selectBest(tactical, tacticalScores, tacticalIndex++);
+                    if (move != hashMove) {
+                        return move;
+                    }
+                }
+                stage = DONE;
+                // fall through
+            default:
+                return Move.NONE;
+        }
+    }
+
+    /**
+     * @return true if the move neither captures nor promotes on the current board
+     */
+    boolean isQuiet(int move) {
+        return move != Move.NONE && !Move.isPromotion(move) && !Move.isEnPassant(move)
+                && game.getBoard().getPiece(Move.to(move)) == null;
+    }
+
+    /**
+     * Scores captures and promotions by MVV-LVA, which is always positive, except that a
+     * capture of a cheaper piece is checked with a static exchange and scored by the
+     * material it loses if it loses any
+     */
+    private int[] scoreTactical(MoveList moves, int[] scores) {
+        scores = ensureCapacity(moves, scores);
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessPiece victim = board.getPiece(Move.to(move));
+            int victimValue = victim == null ? 0 : PieceSquareTables.value(victim.getPieceType());
+            if (Move.isEnPassant(move)) {
+                victimValue = PieceSquareTables.value(ChessPiece.PieceType.PAWN);
+            }
+            ChessPiece.PieceType attacker = board.getPiece(Move.from(move)).getPieceType();
+            int attackerValue = PieceSquareTables.value(attacker);
+            int score = victimValue * 64 - attackerValue;
+            if (Move.isPromotion(move)) {
+                score += PieceSquareTables.value(Move.promotionType(move)) * 64;
+            }
+
+            if (attackerValue > victimValue && attacker != ChessPiece.PieceType.KING) {
+                int exchange = StaticExchange.evaluate(board, move, exchangeGains);
+                if (exchange < 0) {
+                    score = exchange;
+                }
+            }
+            scores[i] = score;
+        }
+        return scores;
+    }
+
+    private int[] scoreQuiet(MoveList moves, int[] scores) {
+        scores = ensureCapacity(moves, scores);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            scores[i] = history[Move.from(move) * 64 + Move.to(move)];
+        }
+        return scores;
+    }
+
+    /**
+     * Moves the highest scoring move from index onwards to index and returns it
+     */
+    private static int selectBest(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        moves.set(best, moves.get(index));
+        moves.set(index, move);
+        int score = scores[best];
+        scores[best] = scores[index];
+        scores[index] = score;
+        return move;
+    }
+
+    private static int[] ensureCapacity(MoveList moves, int[] scores) {
+        return scores.length < moves.size() ? new int[moves.size()] : scores;
+    }
+}
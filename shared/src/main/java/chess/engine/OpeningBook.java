@@ -0,0 +1,217 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book in the Polyglot file format, memory-mapped and searched in place.
+ * <p>
+ * The file is a list of 16-byte big-endian entries sorted by key: the position key (8
+ * bytes), the move (2 bytes), a weight (2 bytes) and a learn field (4 bytes) that is
+ * ignored. A move packs the end file and rank in bits 0-5, the start file and rank in
+ * bits 6-11 and the promotion piece (knight 1 to queen 4) in bits 12-14, and castling is
+ * written as the king taking its own rook.
+ * <p>
+ * Positions are keyed by their {@link PolyglotKey}, so books made by other Polyglot tools
+ * can be read and books written with {@link #write} can be used by them. A lookup is a
+ * binary search over the mapped file; a position that is not in the book allocates
+ * nothing, and one that is decodes only its own entries.
+ */
+public final class OpeningBook {
+
+    /**
+     * A book move and how often it should be played relative to the others
+     */
+    public record Candidate(ChessMove move, int weight) {
+    }
+
+    private static final int ENTRY_BYTES = 16;
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private final MappedByteBuffer buffer;
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.entries = buffer.capacity() / ENTRY_BYTES;
+    }
+
+    /**
+     * Maps a book file into memory. The mapping stays valid after the file is closed.
+     *
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_BYTES != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book: " + path + " is " + size + " bytes");
+            }
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Entries that cannot be decoded, such as those with an unknown promotion code, are
+     * skipped like illegal moves
+     *
+     * @return the legal book moves for the position, in file order, or an empty list if
+     * the position is not in the book
+     */
+    public List<Candidate> lookup(ChessGame game) {
+        long key = PolyglotKey.of(game);
+        int first = firstEntry(key);
+        int end = first;
+        while (end < entries && keyAt(end) == key) {
+            end++;
+        }
+        if (end == first) {
+            return List.of();
+        }
+
+        List<Candidate> candidates = new ArrayList<>(end - first);
+        for (int index = first; index < end; index++) {
+            int offset = index * ENTRY_BYTES;
+            int weight = Short.toUnsignedInt(buffer.getShort(offset + 10));
+            ChessMove move = toChessMove(game, buffer.getShort(offset + 8));
+            if (move != null && weight > 0 && game.isLegal(move)) {
+                candidates.add(new Candidate(move, weight));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Chooses a book move at random, each with probability in proportion to its weight
+     *
+     * @return the move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<Candidate> candidates = lookup(game);
+        int total = 0;
+        for (Candidate candidate : candidates) {
+            total += candidate.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int roll = random.nextInt(total);
+        for (Candidate candidate : candidates) {
+            roll -= candidate.weight();
+            if (roll < 0) {
+                return candidate.move();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    /**
+     * @return index of the first entry whose key is not below the given key
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return buffer.getLong(index * ENTRY_BYTES);
+    }
+
+    /**
+     * @return the move, or null if the entry's promotion code is not one Polyglot defines
+     */
+    private static ChessMove toChessMove(ChessGame game, short encoded) {
+        int to = encoded & 0x3F;
+        int from = (encoded >>> 6) & 0x3F;
+        int code = (encoded >>> 12) & 0x7;
+        if (code >= PROMOTIONS.length) {
+            return null;
+        }
+        ChessPiece.PieceType promotion = PROMOTIONS[code];
+
+        // Castling is stored as the king capturing its own rook
+        ChessPiece piece = game.getBoard().getPiece(from);
+        ChessPiece target = game.getBoard().getPiece(to);
+        if (piece != null && target != null && piece.getPieceType() == ChessPiece.PieceType.KING
+                && target.getPieceType() == ChessPiece.PieceType.ROOK
+                && piece.getTeamColor() == target.getTeamColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        return new ChessMove(Bitboards.position(from), Bitboards.position(to), promotion);
+    }
+
+    private static short encode(ChessMove move, ChessGame game) {
+        int from = Bitboards.square(move.getStartPosition());
+        int to = Bitboards.square(move.getEndPosition());
+        ChessPiece piece = game.getBoard().getPiece(from);
+        if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = 0;
+        for (int i = 1; i < PROMOTIONS.length; i++) {
+            if (PROMOTIONS[i] == move.getPromotionPiece()) {
+                promotion = i;
+            }
+        }
+        return (short) (to | (from << 6) | (promotion << 12));
+    }
+
+    /**
+     * Writes a book in the Polyglot format
+     *
+     * @param lines for each position, the weighted moves to play from it; the games are
+     *              only read for their keys and pieces while the book is written
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Map<ChessGame, List<Candidate>> lines) throws IOException {
+        TreeMap<Long, List<short[]>> sorted = new TreeMap<>(Long::compareUnsigned);
+        for (Map.Entry<ChessGame, List<Candidate>> line : lines.entrySet()) {
+            List<short[]> moves = sorted.computeIfAbsent(PolyglotKey.of(line.getKey()), key -> new ArrayList<>());
+            for (Candidate candidate : line.getValue()) {
+                moves.add(new short[]{encode(candidate.move(), line.getKey()), (short) candidate.weight()});
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(sorted.values().stream().mapToInt(List::size).sum() * ENTRY_BYTES);
+        sorted.forEach((key, moves) -> {
+            for (short[] move : moves) {
+                out.putLong(key).putShort(move[0]).putShort(move[1]).putInt(0);
+            }
+        });
+        out.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package chess.engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds the best move for the side to move with a negamax alpha-beta search.
+ * <p>
+ * The search deepens one ply at a time, trying the previous iteration's best move first,
+ * and keeps the result of the last iteration that completed. Only the first move at each
+ * node is searched with the full window; the rest are searched with a null window and
+ * searched again only if they beat it. Results are kept in a {@link TranspositionTable},
+ * which supplies the move to try first and cuts off nodes outside the principal
+ * variation that were already searched deeply enough.
+ * <p>
+ * Moves come from a {@link MovePicker}, which tries the hash move, then captures, then
+ * quiet moves that caused cutoffs at the same ply (killers), then the remaining quiet
+ * moves by how often they caused cutoffs anywhere (history). At depth zero a quiescence
+ * search plays out captures and promotions until the position is quiet, so the
+ * evaluation is never taken in the middle of an exchange.
+ * <p>
+ * The search is selective, each feature switched by the {@link SearchConfig}. Nodes where
+ * the side to move could pass and still beat beta are cut off after a reduced-depth
+ * search of the pass (null move). Quiet moves late in the move order are searched to a
+ * reduced depth first and re-searched at full depth only if they beat alpha (late move
+ * reductions). Positions in check are searched a ply deeper, and one or two plies from
+ * the leaves quiet moves are skipped when the static evaluation is too far below alpha
+ * for them to matter (futility pruning).
+ * <p>
+ * The node budget is checked at every node and the clock every
+ * {@value #CLOCK_CHECK_INTERVAL} nodes, so a search overruns its time by at most that
+ * many nodes. It works on a copy of the game, leaving the caller's game untouched.
+ * <p>
+ * With more than one thread the search runs as Lazy SMP: helper threads search the same
+ * position on their own copies of the game, sharing only the transposition table. They
+ * start at alternating depths and with different root moves first, so they fill the
+ * table with results the main thread can use. The limits apply to the main thread, whose
+ * result is returned; the helpers stop as soon as it finishes.
+ */
+public final class Search {
+
+    public static final int MATE = 31_000;
+    static final int INFINITY = 32_000;
+    static final int MAX_PLY = 128;
+
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+    private static final int DEFAULT_TABLE_MB = 16;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int[] FUTILITY_MARGINS = {0, 200, 450};
+    private static final int[][] REDUCTIONS = new int[64][64];
+
+    private static final ExecutorService HELPERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-helper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int moves = 1; moves < 64; moves++) {
+                REDUCTIONS[depth][moves] = (int) (0.75 + Math.log(depth) * Math.log(moves) / 2.25);
+            }
+        }
+    }
+
+    private final ChessGame game;
+    private final SearchLimits limits;
+    private final TranspositionTable table;
+    private final SearchConfig config;
+    private final int threadIndex;
+    private final AtomicBoolean sharedStop;
+    // Pickers and PV rows are made the first time a ply is reached, since most searches
+    // never get near MAX_PLY
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final boolean[] nullMovePlayed = new boolean[MAX_PLY + 1];
+    private final int[][] pv = new int[MAX_PLY + 1][];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    private long nodes;
+    // Only meaningful when timed; nanoTime may be negative, so no value can stand for "never"
+    private boolean timed;
+    private long deadline;
+    private boolean stopped;
+
+    private Search(ChessGame game, SearchLimits limits, TranspositionTable table, SearchConfig config,
+                   int threadIndex, AtomicBoolean sharedStop) {
+        this.game = game;
+        this.limits = limits;
+        this.table = table;
+        this.config = config;
+        this.threadIndex = threadIndex;
+        this.sharedStop = sharedStop;
+        this.pv[0] = new int[MAX_PLY + 1];
+    }
+
+    /**
+     * Searches the position within the given limits
+     *
+     * @param game   the position to search, which is not modified
+     * @param limits when to stop searching
+     * @return the best move with its score and the line the search expects
+     */
+    public static SearchResult bestMove(ChessGame game, SearchLimits limits) {
+        return bestMove(game, limits, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+
+    /**
+     * Searches the position using a transposition table that may be shared with other
+     * searches, so positions they have already searched are not searched again
+     */
+    public static SearchResult bestMove(ChessGame game, SearchLimits limits, TranspositionTable table) {
+        return bestMove(game, limits, table, SearchConfig.DEFAULT);
+    }
+
+    /**
+     * Searches the position with the number of threads and the search features given in
+     * the config
+     */
+    public static SearchResult bestMove(ChessGame game, SearchLimits limits, TranspositionTable table,
+                                        SearchConfig config) {
+        long start = System.nanoTime();
+        table.newSearch();
+        if (config.threads() == 1) {
+            return new Search(game.copy(), limits, table, config, 0, null).run();
+        }
+
+        AtomicBoolean stop = new AtomicBoolean();
+        SearchLimits helperLimits = SearchLimits.ofMillis(limits.millis());
+        List<Future<SearchResult>> helpers = new ArrayList<>();
+        for (int i = 1; i < config.threads(); i++) {
+            Search helper = new Search(game.copy(), helperLimits, table, config, i, stop);
+            helpers.add(HELPERS.submit(helper::run));
+        }
+
+        SearchResult main;
+        try {
+            main = new Search(game.copy(), limits, table, config, 0, stop).run();
+        } finally {
+            stop.set(true);
+        }
+
+        long nodes = main.nodes();
+        for (Future<SearchResult> helper : helpers) {
+            try {
+                nodes += helper.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(main.move(), main.score(), main.depth(), nodes, main.principalVariation(),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a move from the opening book if the position is in it, without searching, and
+     * otherwise searches as usual. Book moves are chosen at random by their weights and
+     * reported with a depth of 0 and no nodes.
+     */
+    public static SearchResult bestMove(ChessGame game, SearchLimits limits, TranspositionTable table,
+                                        SearchConfig config, OpeningBook book) {
+        long start = System.nanoTime();
+        ChessMove bookMove = book.pick(game, ThreadLocalRandom.current());
+        if (bookMove != null) {
+            return new SearchResult(bookMove, 0, 0, 0, List.of(bookMove), System.nanoTime() - start);
+        }
+        return bestMove(game, limits, table, config);
+    }
+
+    private SearchResult run() {
+        long start = System.nanoTime();
+        timed = limits.millis() < Long.MAX_VALUE / 1_000_000;
+        deadline = timed ? start + limits.millis() * 1_000_000 : 0L;
+
+        MoveList rootMoves = game.allLegalMoves(game.getTeamTurn());
+        if (rootMoves.isEmpty()) {
+            int score = inCheck() ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, List.of(), System.nanoTime() - start);
+        }
+        // Helpers each lead with a different root move and odd ones skip the first depth
+        swap(rootMoves, 0, threadIndex % rootMoves.size());
+
+        int[] bestLine = {rootMoves.get(0)};
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1 + (threadIndex & 1); depth <= limits.depth(); depth++) {
+            int score = searchRoot(rootMoves, depth);
+            if (stopped && (completedDepth > 0 || pvLength[0] == 0)) {
+                break;
+            }
+            bestLine = new int[pvLength[0]];
+            System.arraycopy(pv[0], 0, bestLine, 0, pvLength[0]);
+            bestScore = score;
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+
+        List<ChessMove> line = new ArrayList<>(bestLine.length);
+        for (int move : bestLine) {
+            line.add(Move.toChessMove(move));
+        }
+        return new SearchResult(line.get(0), bestScore, completedDepth, nodes, line, System.nanoTime() - start);
+    }
+
+    private int searchRoot(MoveList rootMoves, int depth) {
+        int alpha = -INFINITY;
+        pvLength[0] = 0;
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            game.applyMove(move);
+            int score = searchMove(i, depth, 0, 0, alpha, INFINITY);
+            game.unmakeMove();
+            if (stopped) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(0, move);
+                // Keep the best move at the front so the next iteration searches it first
+                for (int j = i; j > 0; j--) {
+                    swap(rootMoves, j, j - 1);
+                }
+            }
+        }
+        return alpha;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+        nodes++;
+
+        boolean inCheck = inCheck();
+        if (inCheck && config.checkExtensions()) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int us = Bitboards.colorIndex(game.getTeamTurn());
+        int staticEval = pvNode || inCheck ? -INFINITY : Evaluator.evaluate(game);
+
+        if (config.nullMove() && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH && staticEval >= beta
+                && !nullMovePlayed[ply - 1] && hasPieces(us)) {
+            int reduction = depth > 6 ? 3 : 2;
+            nullMovePlayed[ply] = true;
+            game.applyNullMove();
+            int score = -negamax(depth - 1 - reduction, ply + 1, -beta, -beta + 1);
+            game.unmakeMove();
+            nullMovePlayed[ply] = false;
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                // A mate found after passing proves nothing about the real position
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+
+        boolean futile = config.futilityPruning() && !pvNode && !inCheck && depth < FUTILITY_MARGINS.length
+                && Math.abs(alpha) < MATE - MAX_PLY && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+
+        MovePicker picker = picker(ply);
+        picker.init(game, hashMove, killers[ply], history[us]);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int played = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            boolean quiet = picker.isQuiet(move);
+            game.applyMove(move);
+            boolean givesCheck = inCheck();
+            if (futile && quiet && played > 0 && !givesCheck) {
+                game.unmakeMove();
+                continue;
+            }
+
+            int reduction = 0;
+            if (config.lateMoveReductions() && quiet && depth >= LMR_MIN_DEPTH && played >= LMR_MIN_MOVES
+                    && !inCheck && !givesCheck && move != killers[ply][0] && move != killers[ply][1]) {
+                reduction = REDUCTIONS[Math.min(depth, 63)][Math.min(played, 63)];
+                if (pvNode) {
+                    reduction--;
+                }
+                reduction = Math.max(0, Math.min(reduction, depth - 2));
+            }
+            int score = searchMove(played++, depth, reduction, ply, alpha, beta);
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            recordCutoff(us, ply, depth, move);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (played == 0) {
+            return inCheck() ? -MATE + ply : 0;
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Searches captures and promotions until none are left, letting the side to move
+     * stand pat on the static evaluation instead of making a losing capture. Captures
+     * that lose material by static exchange are not searched at all. In check every
+     * evasion is searched, since standing pat is not an option.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (shouldStop()) {
+            return 0;
+        }
+        nodes++;
+
+        if (ply >= MAX_PLY) {
+            return Evaluator.evaluate(game);
+        }
+
+        boolean inCheck = inCheck();
+        int best = -INFINITY;
+        MovePicker picker = picker(ply);
+        if (inCheck) {
+            picker.init(game, Move.NONE, killers[ply], history[Bitboards.colorIndex(game.getTeamTurn())]);
+        } else {
+            best = Evaluator.evaluate(game);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            picker.initTactical(game);
+        }
+
+        int played = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            played++;
+            game.applyMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && played == 0) {
+            return -MATE + ply;
+        }
+        return best;
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff, as a killer for its ply and in the
+     * history table, weighted by depth so cutoffs near the root count for more
+     */
+    private void recordCutoff(int us, int ply, int depth, int move) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] scores = history[us];
+        int index = Move.from(move) * 64 + Move.to(move);
+        scores[index] += depth * depth;
+        if (scores[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Searches the reply to a move that has just been made, with the full window for the
+     * first move and a null window for the rest, re-searching any that beat alpha. A
+     * reduced move is searched to the reduced depth first and goes on to the full-depth
+     * searches only if it beats alpha there.
+     */
+    private int searchMove(int moveIndex, int depth, int reduction, int ply, int alpha, int beta) {
+        if (moveIndex == 0) {
+            return -negamax(depth - 1, ply + 1, -beta, -alpha);
+        }
+        if (reduction > 0) {
+            int score = -negamax(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+            if (score <= alpha || stopped) {
+                return score;
+            }
+        }
+        int score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+        if (score > alpha && score < beta && !stopped) {
+            score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+        }
+        return score;
+    }
+
+    /**
+     * Mate scores are stored relative to the position they were found in rather than the
+     * root, so they stay correct when the position is reached at a different ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private boolean shouldStop() {
+        if (stopped) {
+            return true;
+        }
+        if (sharedStop != null && sharedStop.get()) {
+            stopped = true;
+            return true;
+        }
+        if (nodes >= limits.nodes()
+                || (timed && nodes % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0)) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private MovePicker picker(int ply) {
+        MovePicker picker = pickers[ply];
+        if (picker == null) {
+            picker = new MovePicker();
+            pickers[ply] = picker;
+        }
+        return picker;
+    }
+
+    private void updatePv(int ply, int move) {
+        if (pv[ply] == null) {
+            pv[ply] = new int[MAX_PLY + 1];
+        }
+        pv[ply][ply] = move;
+        int childLength = pvLength[ply + 1] - ply - 1;
+        if (childLength > 0) {
+            System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, childLength);
+        }
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    /**
+     * @return true if the side has a piece other than its king and pawns, without which
+     * passing could be better than any move and the null move test would mislead
+     */
+    private boolean hasPieces(int us) {
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor color = Bitboards.color(us);
+        return (board.pieces(color) & ~board.pieces(color, ChessPiece.PieceType.PAWN)
+                & ~board.pieces(color, ChessPiece.PieceType.KING)) != 0;
+    }
+
+    private boolean inCheck() {
+        ChessBoard board = game.getBoard();
+        int us = Bitboards.colorIndex(game.getTeamTurn());
+        int king = board.kingSquare(us);
+        return king != Bitboards.NO_SQUARE && board.isSquareAttacked(king, us ^ 1);
+    }
+
+    private static void swap(MoveList moves, int i, int j) {
+        int move = moves.get(i);
+        moves.set(i, moves.get(j));
+        moves.set(j, move);
+    }
+}
@@ -0,0 +1,53 @@
+package chess.engine;
+
+/**
+ * How a search is run, as opposed to how long it may run for.
+ * <p>
+ * The selective search features can each be switched off, so their effect on strength
+ * and speed can be measured on their own.
+ *
+ * @param threads            threads to search with; more than one runs a Lazy SMP search
+ * @param nullMove           skip nodes where passing the turn still beats beta
+ * @param lateMoveReductions search quiet moves late in the move order to a reduced depth
+ * @param checkExtensions    search one ply deeper when the side to move is in check
+ * @param futilityPruning    skip quiet moves near the leaves that cannot raise alpha
+ */
+public record SearchConfig(int threads, boolean nullMove, boolean lateMoveReductions, boolean checkExtensions,
+                           boolean futilityPruning) {
+
+    public static final SearchConfig DEFAULT = new SearchConfig(1, true, true, true, true);
+
+    public SearchConfig {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+    }
+
+    public SearchConfig withThreads(int threads) {
+        return new SearchConfig(threads, nullMove, lateMoveReductions, checkExtensions, futilityPruning);
+    }
+
+    public SearchConfig withNullMove(boolean nullMove) {
+        return new SearchConfig(threads, nullMove, lateMoveReductions, checkExtensions, futilityPruning);
+    }
+
+    public SearchConfig withLateMoveReductions(boolean lateMoveReductions) {
+        return new SearchConfig(threads, nullMove, lateMoveReductions, checkExtensions, futilityPruning);
+    }
+
+    public SearchConfig withCheckExtensions(boolean checkExtensions) {
+        return new SearchConfig(threads, nullMove, lateMoveReductions, checkExtensions, futilityPruning);
+    }
+
+    public SearchConfig withFutilityPruning(boolean futilityPruning) {
+        return new SearchConfig(threads, nullMove, lateMoveReductions, checkExtensions, futilityPruning);
+    }
+
+    /**
+     * @return this config with every selective search feature switched off, leaving a
+     * plain alpha-beta search
+     */
+    public SearchConfig withoutSelectivity() {
+        return new SearchConfig(threads, false, false, false, false);
+    }
+}
@@ -0,0 +1,45 @@
+package chess.engine;
+
+/**
+ * How far a search may go. The search stops at whichever limit it reaches first; a limit
+ * that is not wanted is left at its maximum value.
+ *
+ * @param depth  deepest iteration to run, in plies
+ * @param nodes  nodes the search may visit
+ * @param millis wall-clock time the search may take
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    public static final int MAX_DEPTH = 100;
+
+    public SearchLimits {
+        if (depth < 1 || nodes < 1 || millis < 1) {
+            throw new IllegalArgumentException("Search limits must be positive");
+        }
+        depth = Math.min(depth, MAX_DEPTH);
+    }
+
+    public static SearchLimits ofDepth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits ofNodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits ofMillis(long millis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, millis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withMillis(long millis) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+}
@@ -0,0 +1,24 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search.
+ *
+ * @param move               best move found, or null if the side to move has none
+ * @param score              score of the move in centipawns for the side to move; mates
+ *                           are reported as {@link Search#MATE} less the plies to mate
+ * @param depth              deepest iteration that completed
+ * @param nodes              nodes visited over all iterations
+ * @param principalVariation the expected line of play, starting with move
+ * @param nanos              wall-clock time taken
+ */
+public record SearchResult(ChessMove move, int score, int depth, long nodes,
+                           List<ChessMove> principalVariation, long nanos) {
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
@@ -0,0 +1,178 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of search results keyed by Zobrist key, shared by any number of
+ * searches and threads without locking.
+ * <p>
+ * Each entry is two longs in one flat array: the key XORed with the data, then the data.
+ * Writers store both words without synchronisation, and a reader only accepts an entry
+ * when XORing the two words back gives its key, so an entry torn by a concurrent write
+ * reads as a miss instead of returning another position's data.
+ * <p>
+ * The data word packs the best move (bits 0-16), the score (bits 17-32), the depth
+ * (bits 33-40), the bound (bits 41-42) and the search generation (bits 43-50). A
+ * non-empty data word is never zero, since the bound is never zero.
+ */
+public final class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /** Returned by {@link #probe} when the position is not in the table */
+    public static final long MISS = 0L;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    // Two longs per entry, and a Java array holds fewer than 2^31 elements
+    private static final int MAX_ENTRIES = 1 << 29;
+    private static final int OCCUPANCY_SAMPLE = 1000;
+
+    private final long[] table;
+    private final int mask;
+    private volatile int generation;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param megabytes memory to use; the entry count is rounded down to a power of two
+     *                  and capped at 2^29 entries (8 GB)
+     */
+    public TranspositionTable(int megabytes) {
+        int entries = entries(megabytes);
+        this.table = new long[entries * 2];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * @return the number of entries a table of the given size holds
+     */
+    static int entries(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB");
+        }
+        return (int) Math.min(Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_BYTES), MAX_ENTRIES);
+    }
+
+    /**
+     * @return the data stored for the key, or {@link #MISS}
+     */
+    public long probe(long key) {
+        probes.increment();
+        int index = index(key);
+        long data = table[index + 1];
+        if (data != MISS && (table[index] ^ data) == key) {
+            hits.increment();
+            return data;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a result, replacing the entry in its slot unless that entry is from the
+     * current generation and either holds another position searched more than two plies
+     * deeper, or holds this position searched deeper and the new result is not exact
+     *
+     * @param score score already adjusted so mates are relative to this position
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = index(key);
+        long old = table[index + 1];
+        if (old != MISS && generation(old) == generation) {
+            boolean samePosition = (table[index] ^ old) == key;
+            if (samePosition ? bound != EXACT && depth(old) > depth : depth(old) > depth + 2) {
+                return;
+            }
+        }
+        long data = (move & 0x1FFFFL)
+                | ((long) (score & 0xFFFF) << 17)
+                | ((long) (depth & 0xFF) << 33)
+                | ((long) bound << 41)
+                | ((long) (generation & 0xFF) << 43);
+        table[index] = key ^ data;
+        table[index + 1] = data;
+        stores.increment();
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0x1FFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 17);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 33) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 41) & 0x3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 43) & 0xFF;
+    }
+
+    /**
+     * Marks the start of a new search, so entries left by earlier ones are replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long probes() {
+        return probes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    public double hitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0.0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * @return the fraction of entries in use, estimated from the first thousand slots
+     */
+    public double occupancy() {
+        int sample = Math.min(OCCUPANCY_SAMPLE, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (table[2 * i + 1] != MISS) {
+                used++;
+            }
+        }
+        return (double) used / sample;
+    }
+
+    public String report() {
+        return String.format("transposition table: %d entries, %.1f%% full, %d probes, %.1f%% hits, %d stores",
+                capacity(), occupancy() * 100, probes(), hitRate() * 100, stores());
+    }
+
+    private int index(long key) {
+        return ((int) key & mask) << 1;
+    }
+}
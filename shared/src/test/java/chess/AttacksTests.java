@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class AttacksTests {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    @Test
+    @DisplayName("Magic Lookups Match A Ray Walk")
+    public void slidersMatchRayWalk() {
+        Random random = new Random(8);
+        for (int trial = 0; trial < 2000; trial++) {
+            // Sparse, medium and dense boards
+            long occupied = switch (trial % 3) {
+                case 0 -> random.nextLong() & random.nextLong() & random.nextLong();
+                case 1 -> random.nextLong();
+                default -> random.nextLong() | random.nextLong();
+            };
+            for (int square = 0; square < 64; square++) {
+                Assertions.assertEquals(rayWalk(square, occupied, ROOK_DIRECTIONS), Attacks.rook(square, occupied),
+                        "Rook on " + Move.squareName(square) + " with occupancy " + Long.toHexString(occupied));
+                Assertions.assertEquals(rayWalk(square, occupied, BISHOP_DIRECTIONS), Attacks.bishop(square, occupied),
+                        "Bishop on " + Move.squareName(square) + " with occupancy " + Long.toHexString(occupied));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Empty And Full Boards")
+    public void emptyAndFullBoards() {
+        for (int square = 0; square < 64; square++) {
+            for (long occupied : new long[]{0L, -1L, Bitboards.bit(square)}) {
+                Assertions.assertEquals(rayWalk(square, occupied, ROOK_DIRECTIONS), Attacks.rook(square, occupied));
+                Assertions.assertEquals(rayWalk(square, occupied, BISHOP_DIRECTIONS), Attacks.bishop(square, occupied));
+            }
+        }
+    }
+
+    private static long rayWalk(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int col = Bitboards.column(square) + direction[1];
+            while (Bitboards.onBoard(row, col)) {
+                int target = Bitboards.square(row, col);
+                attacks |= Bitboards.bit(target);
+                if ((occupied & Bitboards.bit(target)) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
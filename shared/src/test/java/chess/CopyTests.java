@@ -0,0 +1,26 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CopyTests {
+
+    @Test
+    @DisplayName("Copies Move Independently")
+    public void independentCopies() throws InvalidMoveException {
+        ChessGame game = Fen.load("r3k2r/8/8/8/3p4/8/4P3/R3K2R w KQkq - 0 1");
+        ChessGame copy = game.copy();
+        Assertions.assertEquals(Fen.toFen(game), Fen.toFen(copy));
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey());
+
+        copy.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        copy.makeMove(new ChessMove(new ChessPosition(8, 1), new ChessPosition(1, 1), null));
+        Assertions.assertEquals("r3k2r/8/8/8/3p4/8/4P3/R3K2R w KQkq - 0 1", Fen.toFen(game));
+        Assertions.assertEquals("4k2r/8/8/8/3pP3/8/8/r3K2R w Kk - 0 1", Fen.toFen(copy));
+        Assertions.assertNotEquals(game.getBoard(), copy.getBoard());
+
+        game.getBoard().addPiece(new ChessPosition(1, 8), null);
+        Assertions.assertNotNull(copy.getBoard().getPiece(new ChessPosition(1, 8)));
+    }
+}
@@ -0,0 +1,141 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class PerftTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Initial Position")
+    public void initialPosition() {
+        assertPerft(Fen.START, 20, 400, 8902, 197281);
+    }
+
+    @Test
+    @DisplayName("Kiwipete")
+    public void kiwipete() {
+        assertPerft(KIWIPETE, 48, 2039, 97862);
+    }
+
+    @Test
+    @DisplayName("Rook Endgame With Pins")
+    public void rookEndgame() {
+        assertPerft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238);
+    }
+
+    @Test
+    @DisplayName("Promotions And Castling Out Of Check")
+    public void promotions() {
+        assertPerft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 6, 264, 9467);
+        assertPerft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1486, 62379);
+    }
+
+    @Test
+    @DisplayName("En Passant Edge Cases")
+    public void enPassant() {
+        Assertions.assertEquals(1134888, Perft.divide(Fen.load("3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1"), 6).nodes());
+        Assertions.assertEquals(1440467, Perft.divide(Fen.load("8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"), 6).nodes());
+    }
+
+    @Test
+    @DisplayName("Divide Matches Sequential Count")
+    public void divideMatchesPerft() {
+        ChessGame game = Fen.load(KIWIPETE);
+        Perft.Result result = Perft.divide(game, 3);
+        Assertions.assertEquals(48, result.divide().size());
+        Assertions.assertEquals(Perft.perft(game, 3), result.nodes());
+        Assertions.assertEquals(result.nodes(), result.divide().values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(KIWIPETE, Fen.toFen(game), "perft should leave the game unchanged");
+    }
+
+    @Test
+    @DisplayName("Single Move Check Agrees With Generator")
+    public void isLegalMatchesGenerator() {
+        for (String fen : new String[]{KIWIPETE, "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"}) {
+            assertIsLegalMatches(Fen.load(fen), 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Tactical And Quiet Moves Split The Legal Moves")
+    public void tacticalAndQuietMoves() {
+        for (String fen : new String[]{KIWIPETE, "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1"}) {
+            assertMovesSplit(Fen.load(fen), 2);
+        }
+    }
+
+    private static void assertMovesSplit(ChessGame game, int depth) {
+        MoveList all = game.allLegalMoves(game.getTeamTurn());
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < all.size(); i++) {
+            expected.add(all.get(i));
+            Assertions.assertTrue(game.isLegal(all.get(i)));
+        }
+
+        MoveList tactical = new MoveList();
+        MoveList quiet = new MoveList();
+        game.tacticalMoves(game.getTeamTurn(), tactical);
+        game.quietMoves(game.getTeamTurn(), quiet);
+        Set<Integer> split = new HashSet<>();
+        for (int i = 0; i < tactical.size(); i++) {
+            int move = tactical.get(i);
+            Assertions.assertTrue(Move.isPromotion(move) || Move.isEnPassant(move)
+                    || game.getBoard().getPiece(Move.to(move)) != null, Move.toString(move));
+            split.add(move);
+        }
+        for (int i = 0; i < quiet.size(); i++) {
+            int move = quiet.get(i);
+            Assertions.assertFalse(Move.isPromotion(move) || game.getBoard().getPiece(Move.to(move)) != null,
+                    Move.toString(move));
+            split.add(move);
+        }
+        Assertions.assertEquals(all.size(), tactical.size() + quiet.size(), Fen.toFen(game));
+        Assertions.assertEquals(expected, split, Fen.toFen(game));
+
+        if (depth > 1) {
+            for (int i = 0; i < all.size(); i++) {
+                game.applyMove(all.get(i));
+                assertMovesSplit(game, depth - 1);
+                game.unmakeMove();
+            }
+        }
+    }
+
+    private static void assertIsLegalMatches(ChessGame game, int depth) {
+        MoveList moves = game.allLegalMoves(game.getTeamTurn());
+        Set<ChessMove> expected = new HashSet<>(moves.toChessMoves());
+        ChessPiece.PieceType[] promotions = {null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KNIGHT,
+                ChessPiece.PieceType.KING};
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (ChessPiece.PieceType promotion : promotions) {
+                    ChessMove move = new ChessMove(Bitboards.position(from), Bitboards.position(to), promotion);
+                    Assertions.assertEquals(expected.contains(move), game.isLegal(move), move + " in " + Fen.toFen(game));
+                }
+            }
+        }
+        if (depth > 1) {
+            for (int i = 0; i < moves.size(); i++) {
+                game.applyMove(moves.get(i));
+                assertIsLegalMatches(game, depth - 1);
+                game.unmakeMove();
+            }
+        }
+    }
+
+    private static void assertPerft(String fen, long... expected) {
+        ChessGame game = Fen.load(fen);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Assertions.assertEquals(expected[depth - 1], Perft.perft(game, depth), "perft(" + depth + ") of " + fen);
+        }
+    }
+}
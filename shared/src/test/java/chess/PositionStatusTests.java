@@ -0,0 +1,56 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PositionStatusTests {
+
+    @Test
+    @DisplayName("Status Follows Moves And Take Backs")
+    public void followsMoves() throws InvalidMoveException {
+        ChessGame game = Fen.load("rnbqkbnr/pppp1ppp/8/4p3/6P1/5P2/PPPPP2P/RNBQKBNR b KQkq - 0 2");
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        game.unmakeMove();
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Null Move Passes The Turn")
+    public void nullMove() {
+        String fen = "rnbqkbnr/ppp1pppp/8/8/3pP3/5N2/PPPP1PPP/RNBQKB1R b KQkq e3 0 1";
+        ChessGame game = Fen.load(fen);
+        long key = game.getZobristKey();
+        Assertions.assertEquals(Bitboards.square(3, 5), game.getEnPassantSquare());
+
+        game.applyNullMove();
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(Bitboards.NO_SQUARE, game.getEnPassantSquare());
+        Assertions.assertEquals(Fen.load("rnbqkbnr/ppp1pppp/8/8/3pP3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 0 1").getZobristKey(),
+                game.getZobristKey());
+
+        game.unmakeMove();
+        Assertions.assertEquals(fen, Fen.toFen(game));
+        Assertions.assertEquals(Bitboards.square(3, 5), game.getEnPassantSquare());
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Status Sees Direct Board Changes")
+    public void boardChanges() {
+        ChessGame game = Fen.load("7k/8/8/8/8/8/8/K7 w - - 0 1");
+        Assertions.assertEquals(3, game.validMoves(new ChessPosition(1, 1)).size());
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.BLACK));
+
+        game.getBoard().addPiece(new ChessPosition(6, 7),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(3, game.validMoves(new ChessPosition(1, 1)).size());
+    }
+}
@@ -0,0 +1,108 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class SerializationTests {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Games Round Trip Through Json")
+    public void roundTrip() {
+        ChessGame game = Fen.load(KIWIPETE);
+        MoveList moves = game.allLegalMoves(game.getTeamTurn());
+        game.applyMove(moves.get(3));
+
+        String json = new Gson().toJson(game);
+        Assertions.assertFalse(json.contains("Bitboards") || json.contains("zobristKey") || json.contains("mgScore"),
+                json);
+        Assertions.assertTrue(json.length() < 1700, json.length() + " characters");
+
+        ChessGame loaded = new Gson().fromJson(json, ChessGame.class);
+        Assertions.assertEquals(Fen.toFen(game), Fen.toFen(loaded));
+        Assertions.assertEquals(game.getBoard(), loaded.getBoard());
+        Assertions.assertEquals(game.getZobristKey(), loaded.getZobristKey());
+        Assertions.assertEquals(game.getBoard().getMiddlegameScore(), loaded.getBoard().getMiddlegameScore());
+        Assertions.assertEquals(game.getBoard().getPhase(), loaded.getBoard().getPhase());
+        Assertions.assertEquals(game.allLegalMoves(game.getTeamTurn()).size(),
+                loaded.allLegalMoves(loaded.getTeamTurn()).size());
+    }
+
+    @Test
+    @DisplayName("Loads Games Stored In The 8x8 Format")
+    public void legacyFormat() {
+        ChessGame loaded = new Gson().fromJson(legacyJson(true), ChessGame.class);
+        Assertions.assertEquals(Fen.START, Fen.toFen(loaded));
+        Assertions.assertEquals(Fen.load(Fen.START).getZobristKey(), loaded.getZobristKey());
+        Assertions.assertEquals(20, loaded.allLegalMoves(ChessGame.TeamColor.WHITE).size());
+    }
+
+    @Test
+    @DisplayName("Old Games Keep Castling Rights Lost To Moved Pieces")
+    public void legacyCastlingRights() {
+        // The white king and the h8 rook moved away and came back before the game was saved
+        ChessGame loaded = new Gson().fromJson(legacyJson(true, Bitboards.square(1, 5), Bitboards.square(8, 8)),
+                ChessGame.class);
+        Assertions.assertEquals(ChessGame.BLACK_QUEENSIDE, loaded.getCastlingRights());
+
+        ChessGame reloaded = new Gson().fromJson(new Gson().toJson(loaded), ChessGame.class);
+        Assertions.assertEquals(ChessGame.BLACK_QUEENSIDE, reloaded.getCastlingRights());
+        Assertions.assertEquals(Fen.toFen(loaded), Fen.toFen(reloaded));
+
+        // Without the flags the rights can only be guessed from the placement
+        ChessGame unflagged = new Gson().fromJson(legacyJson(false), ChessGame.class);
+        Assertions.assertEquals(ChessGame.ALL_CASTLING, unflagged.getCastlingRights());
+    }
+
+    @Test
+    @DisplayName("Loaded Boards Hold The Shared Pieces")
+    public void canonicalPieces() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard loaded = new Gson().fromJson(new Gson().toJson(board), ChessBoard.class);
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = loaded.getPiece(square);
+            if (piece != null) {
+                Assertions.assertSame(ChessPiece.of(piece.getTeamColor(), piece.getPieceType()), piece);
+            }
+        }
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                loaded.getPiece(new ChessPosition(1, 1)));
+    }
+
+    /**
+     * @return the start position in the format games were stored in before castling
+     * rights were kept, with the pieces on the given squares marked as having moved
+     */
+    private static String legacyJson(boolean movedFlags, int... movedSquares) {
+        StringBuilder json = new StringBuilder("{\"board\":{\"squares\":[");
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+        for (int row = 0; row < 8; row++) {
+            json.append(row == 0 ? "[" : ",[");
+            for (int col = 0; col < 8; col++) {
+                int square = row * 8 + col;
+                ChessPiece piece = start.getPiece(square);
+                json.append(col == 0 ? "" : ",");
+                if (piece == null) {
+                    json.append("null");
+                    continue;
+                }
+                json.append("{\"teamColor\":\"").append(piece.getTeamColor())
+                        .append("\",\"pieceType\":\"").append(piece.getPieceType()).append('"');
+                if (movedFlags) {
+                    boolean moved = Arrays.stream(movedSquares).anyMatch(movedSquare -> movedSquare == square);
+                    json.append(",\"hasMoved\":").append(moved).append(",\"justDoubleMoved\":false");
+                }
+                json.append('}');
+            }
+            json.append("]");
+        }
+        return json.append("]},\"teamTurn\":\"WHITE\"}").toString();
+    }
+}
@@ -0,0 +1,106 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class StaticExchangeTests {
+
+    private static final int PAWN = PieceSquareTables.value(ChessPiece.PieceType.PAWN);
+    private static final int KNIGHT = PieceSquareTables.value(ChessPiece.PieceType.KNIGHT);
+    private static final int ROOK = PieceSquareTables.value(ChessPiece.PieceType.ROOK);
+    private static final int QUEEN = PieceSquareTables.value(ChessPiece.PieceType.QUEEN);
+
+    @Test
+    @DisplayName("Undefended And Defended Captures")
+    public void simpleCaptures() {
+        // Rook takes an undefended pawn
+        Assertions.assertEquals(PAWN, see("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", "e1e5"));
+        // Queen takes a pawn defended by a pawn
+        Assertions.assertEquals(PAWN - QUEEN, see("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1", "d1d5"));
+        // Pawn takes a defended knight
+        Assertions.assertEquals(KNIGHT - PAWN, see("4k3/8/2p5/3n4/4P3/8/8/4K3 w - - 0 1", "e4d5"));
+    }
+
+    @Test
+    @DisplayName("Sliders Behind The Capturer Join In")
+    public void xRays() {
+        // Knight takes a pawn defended by a knight and a rook, backed by a rook and queen behind it
+        String fen = "1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1";
+        Assertions.assertEquals(PAWN - KNIGHT, see(fen, "d3e5"));
+        // Doubled rooks win the pawn the single rook could not
+        Assertions.assertEquals(PAWN, see("4k3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+        Assertions.assertEquals(PAWN - ROOK, see("4k3/3r4/8/3p4/8/8/3R4/4K3 w - - 0 1", "d2d5"));
+    }
+
+    @Test
+    @DisplayName("King Does Not Recapture Onto A Covered Square")
+    public void kingRecapture() {
+        Assertions.assertEquals(PAWN - ROOK, see("8/8/8/3pk3/8/8/8/3RK3 w - - 0 1", "d1d5"));
+        Assertions.assertEquals(PAWN, see("8/8/8/3pk3/8/8/3R4/3RK3 w - - 0 1", "d2d5"));
+    }
+
+    @Test
+    @DisplayName("Works From ChessMove Without Flags")
+    public void chessMove() {
+        ChessGame game = Fen.load("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        ChessMove enPassant = new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 4), null);
+        Assertions.assertEquals(PAWN, StaticExchange.evaluate(game.getBoard(), enPassant));
+    }
+
+    @Test
+    @DisplayName("Reused Scratch Array Gives The Same Results")
+    public void scratchArray() {
+        int[] gain = new int[StaticExchange.SCRATCH_LENGTH];
+        Arrays.fill(gain, 12345);
+        ChessBoard board = Fen.load("4k3/3r4/8/3p4/8/8/3R4/3RK3 w - - 0 1").getBoard();
+        int capture = Move.of(Bitboards.square(2, 4), Bitboards.square(5, 4));
+        int quiet = Move.of(Bitboards.square(1, 4), Bitboards.square(1, 1));
+        Assertions.assertEquals(PAWN, StaticExchange.evaluate(board, capture, gain));
+        Assertions.assertEquals(0, StaticExchange.evaluate(board, quiet, gain));
+        Assertions.assertEquals(StaticExchange.evaluate(board, capture), StaticExchange.evaluate(board, capture, gain));
+    }
+
+    @Test
+    @DisplayName("Long Exchanges Stay Within The Scratch Array")
+    public void crowdedBoard() {
+        // Queens on every line into d5 and knights around it, more attackers than the array has room for
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(5, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        for (int col = 1; col <= 8; col++) {
+            for (int row = 1; row <= 8; row++) {
+                if (row == 5 || col == 4 || Math.abs(row - 5) == Math.abs(col - 4)) {
+                    if (row != 5 || col != 4) {
+                        ChessGame.TeamColor color = (row + col) % 2 == 0
+                                ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                        board.addPiece(new ChessPosition(row, col), ChessPiece.of(color, ChessPiece.PieceType.QUEEN));
+                    }
+                }
+            }
+        }
+        long knights = Attacks.knight(Bitboards.square(5, 4));
+        while (knights != 0) {
+            int square = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            ChessGame.TeamColor color = square % 2 == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            board.addPiece(Bitboards.position(square), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+        }
+        int capture = Move.of(Bitboards.square(4, 4), Bitboards.square(5, 4));
+        int score = StaticExchange.evaluate(board, capture, new int[4]);
+        Assertions.assertTrue(Math.abs(score) <= QUEEN, String.valueOf(score));
+        StaticExchange.evaluate(board, capture);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> StaticExchange.evaluate(board, capture, new int[1]));
+    }
+
+    private static int see(String fen, String move) {
+        ChessGame game = Fen.load(fen);
+        int from = (move.charAt(0) - 'a') + 8 * (move.charAt(1) - '1');
+        int to = (move.charAt(2) - 'a') + 8 * (move.charAt(3) - '1');
+        int score = StaticExchange.evaluate(game.getBoard(), Move.of(from, to));
+        Assertions.assertEquals(fen, Fen.toFen(game), "the board should be left untouched");
+        return score;
+    }
+}
@@ -0,0 +1,128 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class ZobristTests {
+
+    private static final String[] POSITIONS = {
+            Fen.START,
+            // Castling both ways for both sides
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            // En passant available at once
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 1",
+            // Promotions with and without captures
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1"
+    };
+
+    @Test
+    @DisplayName("Incremental Keys Match Keys Built From Scratch")
+    public void randomGames() {
+        Random random = new Random(9);
+        int castles = 0;
+        int enPassants = 0;
+        int promotions = 0;
+        int nullMoves = 0;
+
+        for (String fen : POSITIONS) {
+            for (int game = 0; game < 40; game++) {
+                ChessGame chessGame = Fen.load(fen);
+                String[] played = new String[60];
+                int plies = 0;
+                while (plies < played.length) {
+                    MoveList moves = chessGame.allLegalMoves(chessGame.getTeamTurn());
+                    if (moves.isEmpty()) {
+                        break;
+                    }
+                    played[plies++] = Fen.toFen(chessGame);
+                    if (!chessGame.isInCheck(chessGame.getTeamTurn()) && random.nextInt(8) == 0) {
+                        chessGame.applyNullMove();
+                        nullMoves++;
+                    } else {
+                        int move = pickMove(moves, random);
+                        castles += Move.isCastle(move) ? 1 : 0;
+                        enPassants += Move.isEnPassant(move) ? 1 : 0;
+                        promotions += Move.isPromotion(move) ? 1 : 0;
+                        chessGame.applyMove(move);
+                    }
+                    assertConsistent(chessGame);
+                }
+                while (plies > 0) {
+                    chessGame.unmakeMove();
+                    Assertions.assertEquals(played[--plies], Fen.toFen(chessGame));
+                    assertConsistent(chessGame);
+                }
+            }
+        }
+
+        Assertions.assertTrue(castles > 0, "No castling moves were played");
+        Assertions.assertTrue(enPassants > 0, "No en passant captures were played");
+        Assertions.assertTrue(promotions > 0, "No promotions were played");
+        Assertions.assertTrue(nullMoves > 0, "No null moves were played");
+    }
+
+    /**
+     * Prefers the special moves, which random play would otherwise seldom reach
+     */
+    private static int pickMove(MoveList moves, Random random) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if ((Move.isCastle(move) || Move.isEnPassant(move) || Move.isPromotion(move)) && random.nextInt(3) == 0) {
+                return move;
+            }
+        }
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    private static void assertConsistent(ChessGame game) {
+        String fen = Fen.toFen(game);
+        ChessGame reloaded = Fen.load(fen);
+        Assertions.assertEquals(reloaded.getZobristKey(), game.getZobristKey(), fen);
+        Assertions.assertEquals(scratchKey(game), game.getZobristKey(), fen);
+
+        ChessBoard board = game.getBoard();
+        int mg = 0;
+        int eg = 0;
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                int index = Bitboards.pieceIndex(piece);
+                mg += PieceSquareTables.mg(index, square);
+                eg += PieceSquareTables.eg(index, square);
+                phase += PieceSquareTables.phase(index);
+            }
+        }
+        Assertions.assertEquals(mg, board.getMiddlegameScore(), fen);
+        Assertions.assertEquals(eg, board.getEndgameScore(), fen);
+        Assertions.assertEquals(phase, board.getPhase(), fen);
+    }
+
+    /**
+     * The key worked out square by square, without any of the incremental updates
+     */
+    private static long scratchKey(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int us = Bitboards.colorIndex(game.getTeamTurn());
+        long key = Zobrist.castling(game.getCastlingRights());
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                key ^= Zobrist.piece(Bitboards.pieceIndex(piece), square);
+            }
+        }
+        int epSquare = game.getEnPassantSquare();
+        if (epSquare != Bitboards.NO_SQUARE
+                && (Attacks.pawn(us ^ 1, epSquare) & board.pieces(game.getTeamTurn(), ChessPiece.PieceType.PAWN)) != 0) {
+            key ^= Zobrist.enPassant(epSquare);
+        }
+        if (us == Bitboards.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        return key;
+    }
+}
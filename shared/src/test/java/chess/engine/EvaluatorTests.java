@@ -0,0 +1,90 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EvaluatorTests {
+
+    private static final String[] POSITIONS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1",
+    };
+
+    @Test
+    @DisplayName("Start Position Is Level")
+    public void startPosition() {
+        ChessGame game = Fen.load(Fen.START);
+        Assertions.assertEquals(0, Evaluator.evaluate(game));
+        Assertions.assertEquals(24, game.getBoard().getPhase());
+    }
+
+    @Test
+    @DisplayName("Mirrored Positions Score The Same")
+    public void symmetry() {
+        for (String fen : POSITIONS) {
+            Assertions.assertEquals(Evaluator.evaluate(Fen.load(fen)), Evaluator.evaluate(Fen.load(mirror(fen))), fen);
+        }
+    }
+
+    @Test
+    @DisplayName("Incremental Totals Match A Fresh Board")
+    public void incrementalTotals() {
+        for (String fen : POSITIONS) {
+            ChessGame game = Fen.load(fen);
+            MoveList moves = game.allLegalMoves(game.getTeamTurn());
+            for (int i = 0; i < moves.size(); i++) {
+                game.applyMove(moves.get(i));
+                assertSameTotals(Fen.load(Fen.toFen(game)).getBoard(), game.getBoard());
+                MoveList replies = game.allLegalMoves(game.getTeamTurn());
+                if (!replies.isEmpty()) {
+                    game.applyMove(replies.get(0));
+                    assertSameTotals(Fen.load(Fen.toFen(game)).getBoard(), game.getBoard());
+                    game.unmakeMove();
+                }
+                game.unmakeMove();
+            }
+            assertSameTotals(Fen.load(fen).getBoard(), game.getBoard());
+        }
+    }
+
+    private static void assertSameTotals(ChessBoard expected, ChessBoard actual) {
+        Assertions.assertEquals(expected.getMiddlegameScore(), actual.getMiddlegameScore());
+        Assertions.assertEquals(expected.getEndgameScore(), actual.getEndgameScore());
+        Assertions.assertEquals(expected.getPhase(), actual.getPhase());
+    }
+
+    /**
+     * Flips the board vertically and swaps the colors, including the side to move
+     */
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] ranks = fields[0].split("/");
+        StringBuilder placement = new StringBuilder();
+        for (int i = ranks.length - 1; i >= 0; i--) {
+            placement.append(swapCase(ranks[i]));
+            if (i > 0) {
+                placement.append('/');
+            }
+        }
+        String turn = fields[1].equals("w") ? "b" : "w";
+        String castling = fields[2].equals("-") ? "-" : swapCase(fields[2]);
+        String enPassant = fields[3].equals("-") ? "-"
+                : fields[3].charAt(0) + String.valueOf(9 - (fields[3].charAt(1) - '0'));
+        return String.join(" ", placement, turn, castling, enPassant, fields[4], fields[5]);
+    }
+
+    private static String swapCase(String text) {
+        StringBuilder swapped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+}
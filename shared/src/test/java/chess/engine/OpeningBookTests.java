@@ -0,0 +1,132 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OpeningBookTests {
+
+    private static final String ITALIAN = "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 0 1";
+
+    private static final ChessMove E4 = move(2, 5, 4, 5);
+    private static final ChessMove D4 = move(2, 4, 4, 4);
+    private static final ChessMove CASTLE = move(1, 5, 1, 7);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Finds Weighted Moves By Key")
+    public void lookup() throws IOException {
+        OpeningBook book = OpeningBook.open(writeBook());
+        Assertions.assertEquals(4, book.size());
+
+        List<OpeningBook.Candidate> start = book.lookup(Fen.load(Fen.START));
+        Assertions.assertEquals(List.of(new OpeningBook.Candidate(E4, 3), new OpeningBook.Candidate(D4, 1)), start);
+
+        // Castling is stored as king takes rook and comes back as a two-square king move
+        Assertions.assertEquals(List.of(new OpeningBook.Candidate(CASTLE, 5)), book.lookup(Fen.load(ITALIAN)));
+
+        Assertions.assertTrue(book.lookup(Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).isEmpty());
+        Assertions.assertNull(book.pick(Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), new Random(1)));
+    }
+
+    @Test
+    @DisplayName("Picks Moves In Proportion To Their Weights")
+    public void pick() throws IOException {
+        OpeningBook book = OpeningBook.open(writeBook());
+        ChessGame game = Fen.load(Fen.START);
+        Random random = new Random(42);
+        int e4 = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (book.pick(game, random).equals(E4)) {
+                e4++;
+            }
+        }
+        Assertions.assertTrue(e4 > 2800 && e4 < 3200, e4 + " of 4000");
+    }
+
+    @Test
+    @DisplayName("Book Hits Skip The Search")
+    public void search() throws IOException {
+        OpeningBook book = OpeningBook.open(writeBook());
+        SearchResult hit = Search.bestMove(Fen.load(ITALIAN), SearchLimits.ofDepth(20), new TranspositionTable(1),
+                SearchConfig.DEFAULT, book);
+        Assertions.assertEquals(CASTLE, hit.move());
+        Assertions.assertEquals(0, hit.nodes());
+
+        SearchResult miss = Search.bestMove(Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), SearchLimits.ofDepth(3),
+                new TranspositionTable(1), SearchConfig.DEFAULT, book);
+        Assertions.assertEquals(move(1, 1, 8, 1), miss.move());
+        Assertions.assertTrue(miss.nodes() > 0);
+    }
+
+    @Test
+    @DisplayName("Reads Books Written By Other Polyglot Tools")
+    public void polyglotFile() throws IOException {
+        // One entry by hand: the published start position key, e2e4, weight 7
+        Path file = directory.resolve("polyglot.bin");
+        Files.write(file, ByteBuffer.allocate(16).putLong(0x463B96181691FC9CL).putShort((short) (28 | 12 << 6))
+                .putShort((short) 7).putInt(0).array());
+        OpeningBook book = OpeningBook.open(file);
+        Assertions.assertEquals(List.of(new OpeningBook.Candidate(E4, 7)), book.lookup(Fen.load(Fen.START)));
+        Assertions.assertEquals(List.of(), book.lookup(Fen.load(ITALIAN)));
+    }
+
+    @Test
+    @DisplayName("Skips Entries With Unknown Promotion Codes")
+    public void badPromotion() throws IOException {
+        // e2e4 stored with each of the undefined promotion codes 5 to 7, then plainly
+        Path file = directory.resolve("corrupt.bin");
+        ByteBuffer entries = ByteBuffer.allocate(64);
+        for (int code = 5; code <= 8; code++) {
+            int promotion = code == 8 ? 0 : code;
+            entries.putLong(0x463B96181691FC9CL).putShort((short) (28 | 12 << 6 | promotion << 12))
+                    .putShort((short) 1).putInt(0);
+        }
+        Files.write(file, entries.array());
+
+        OpeningBook book = OpeningBook.open(file);
+        Assertions.assertEquals(List.of(new OpeningBook.Candidate(E4, 1)), book.lookup(Fen.load(Fen.START)));
+        Assertions.assertEquals(E4, book.pick(Fen.load(Fen.START), new Random(3)));
+    }
+
+    @Test
+    @DisplayName("Rejects Files That Are Not Books")
+    public void badFile() throws IOException {
+        Path file = directory.resolve("bad.bin");
+        Files.write(file, new byte[17]);
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+
+    private Path writeBook() throws IOException {
+        Map<ChessGame, List<OpeningBook.Candidate>> lines = new LinkedHashMap<>();
+        lines.put(Fen.load(Fen.START), List.of(new OpeningBook.Candidate(E4, 3), new OpeningBook.Candidate(D4, 1)));
+        lines.put(Fen.load(ITALIAN), List.of(new OpeningBook.Candidate(CASTLE, 5)));
+        // An illegal move stored for a position is skipped on lookup
+        lines.put(Fen.load("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1"),
+                List.of(new OpeningBook.Candidate(E4, 1)));
+
+        Path file = directory.resolve("book.bin");
+        OpeningBook.write(file, lines);
+        return file;
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
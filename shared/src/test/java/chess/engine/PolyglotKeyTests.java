@@ -0,0 +1,65 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PolyglotKeyTests {
+
+    @Test
+    @DisplayName("Matches The Published Keys")
+    public void publishedKeys() {
+        Assertions.assertEquals(0x463B96181691FC9CL, PolyglotKey.of(Fen.load(Fen.START)));
+        Assertions.assertEquals(0x823C9B50FD114196L,
+                key("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"));
+        Assertions.assertEquals(0x0756B94461C50FB0L,
+                key("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2"));
+        Assertions.assertEquals(0x662FAFB965DB29D4L,
+                key("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2"));
+        // En passant is possible here, so the file counts
+        Assertions.assertEquals(0x22A48B5A8E47FF78L,
+                key("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"));
+        Assertions.assertEquals(0x652A607CA3F242C1L,
+                key("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3"));
+        Assertions.assertEquals(0x00FDD303C946BDD9L,
+                key("rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4"));
+        Assertions.assertEquals(0x3C8123EA7B067637L,
+                key("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3"));
+        Assertions.assertEquals(0x5C3F9B829B279560L,
+                key("rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4"));
+    }
+
+    @Test
+    @DisplayName("Follows Moves Played On The Board")
+    public void playedMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(0x823C9B50FD114196L, PolyglotKey.of(game));
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertEquals(0x0756B94461C50FB0L, PolyglotKey.of(game));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 6, 5, 6));
+        Assertions.assertEquals(0x22A48B5A8E47FF78L, PolyglotKey.of(game));
+        game.makeMove(move(1, 5, 2, 5));
+        game.makeMove(move(8, 5, 7, 6));
+        Assertions.assertEquals(0x00FDD303C946BDD9L, PolyglotKey.of(game));
+
+        for (int i = 0; i < 6; i++) {
+            game.unmakeMove();
+        }
+        Assertions.assertEquals(0x463B96181691FC9CL, PolyglotKey.of(game));
+    }
+
+    private static long key(String fen) {
+        return PolyglotKey.of(Fen.load(fen));
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
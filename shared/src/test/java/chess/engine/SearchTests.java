@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = Search.bestMove(game, SearchLimits.ofDepth(3));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.move());
+        Assertions.assertEquals(Search.MATE - 1, result.score());
+        Assertions.assertTrue(result.isMate());
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void mateInTwo() {
+        ChessGame game = Fen.load("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = Search.bestMove(game, SearchLimits.ofDepth(4));
+        Assertions.assertEquals(Search.MATE - 3, result.score());
+        Assertions.assertEquals(3, result.principalVariation().size());
+        Assertions.assertEquals(result.move(), result.principalVariation().get(0));
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Material")
+    public void winsMaterial() {
+        ChessGame game = Fen.load("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = Search.bestMove(game, SearchLimits.ofDepth(3));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), result.move());
+        Assertions.assertTrue(result.score() > 0);
+    }
+
+    @Test
+    @DisplayName("Sees The Recapture Beyond The Horizon")
+    public void quiescence() {
+        ChessGame game = Fen.load("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+        SearchResult result = Search.bestMove(game, SearchLimits.ofDepth(1));
+        Assertions.assertNotEquals(new ChessPosition(5, 4), result.move().getEndPosition());
+        Assertions.assertTrue(result.score() > 500, "score " + result.score());
+    }
+
+    @Test
+    @DisplayName("Stays Within Node And Time Budgets")
+    public void budgets() {
+        ChessGame game = Fen.load(Fen.START);
+        SearchResult byNodes = Search.bestMove(game, SearchLimits.ofNodes(5000));
+        Assertions.assertTrue(byNodes.nodes() <= 5000);
+        Assertions.assertNotNull(byNodes.move());
+
+        SearchResult byTime = Search.bestMove(game, SearchLimits.ofMillis(50));
+        Assertions.assertTrue(byTime.nanos() < 150_000_000L, "took " + byTime.nanos() / 1_000_000 + " ms");
+        Assertions.assertNotNull(byTime.move());
+        Assertions.assertEquals(Fen.START, Fen.toFen(game), "search should leave the game unchanged");
+    }
+
+    @Test
+    @DisplayName("Parallel Search Agrees On Forced Lines")
+    public void parallelSearch() {
+        SearchConfig config = SearchConfig.DEFAULT.withThreads(4);
+        ChessGame game = Fen.load("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult mate = Search.bestMove(game, SearchLimits.ofDepth(4), new TranspositionTable(4), config);
+        Assertions.assertEquals(Search.MATE - 3, mate.score());
+
+        ChessGame start = Fen.load(Fen.START);
+        SearchResult timed = Search.bestMove(start, SearchLimits.ofMillis(100), new TranspositionTable(4), config);
+        Assertions.assertNotNull(timed.move());
+        Assertions.assertTrue(start.isLegal(timed.move()));
+        Assertions.assertTrue(timed.nanos() < 300_000_000L, "took " + timed.nanos() / 1_000_000 + " ms");
+    }
+
+    @Test
+    @DisplayName("Selective Features Keep Forced Lines")
+    public void selectiveFeatures() {
+        SearchConfig plain = SearchConfig.DEFAULT.withoutSelectivity();
+        SearchConfig[] configs = {plain, plain.withNullMove(true), plain.withLateMoveReductions(true),
+                plain.withCheckExtensions(true), plain.withFutilityPruning(true), SearchConfig.DEFAULT};
+        for (SearchConfig config : configs) {
+            ChessGame game = Fen.load("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+            SearchResult mate = Search.bestMove(game, SearchLimits.ofDepth(4), new TranspositionTable(1), config);
+            Assertions.assertEquals(Search.MATE - 3, mate.score(), config.toString());
+
+            ChessGame material = Fen.load("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+            SearchResult capture = Search.bestMove(material, SearchLimits.ofDepth(5), new TranspositionTable(1), config);
+            Assertions.assertEquals(new ChessPosition(5, 4), capture.move().getEndPosition(), config.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("No Move When Mated Or Stalemated")
+    public void noLegalMoves() {
+        SearchResult mated = Search.bestMove(Fen.load("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1"), SearchLimits.ofDepth(2));
+        Assertions.assertNull(mated.move());
+        Assertions.assertEquals(-Search.MATE, mated.score());
+
+        SearchResult stalemate = Search.bestMove(Fen.load("7k/8/6QK/8/8/8/8/8 b - - 0 1"), SearchLimits.ofDepth(2));
+        Assertions.assertNull(stalemate.move());
+        Assertions.assertEquals(0, stalemate.score());
+    }
+}
@@ -0,0 +1,96 @@
+package chess.engine;
+
+import chess.ChessPiece;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stores And Reads Back Entries")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        Assertions.assertEquals(1 << 16, table.capacity());
+
+        int move = Move.promotion(52, 60, ChessPiece.PieceType.KNIGHT) | Move.EN_PASSANT;
+        table.store(0x1234_5678_9ABC_DEF0L, move, -Search.MATE + 7, 12, TranspositionTable.UPPER);
+        long data = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertNotEquals(TranspositionTable.MISS, data);
+        Assertions.assertEquals(move, TranspositionTable.move(data));
+        Assertions.assertEquals(-Search.MATE + 7, TranspositionTable.score(data));
+        Assertions.assertEquals(12, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+
+        // Same slot, different key
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(0x1234_5678_9ABC_DEF0L ^ (1L << 40)));
+        Assertions.assertEquals(0.5, table.hitRate());
+        Assertions.assertEquals(1, table.stores());
+    }
+
+    @Test
+    @DisplayName("Keeps Deeper Entries Of The Current Search")
+    public void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42L;
+        long other = key + ((long) table.capacity() << 8);
+        table.store(key, Move.of(12, 28), 30, 10, TranspositionTable.EXACT);
+        table.store(other, Move.of(6, 21), 5, 2, TranspositionTable.LOWER);
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.newSearch();
+        table.store(other, Move.of(6, 21), 5, 2, TranspositionTable.LOWER);
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(other));
+    }
+
+    @Test
+    @DisplayName("Keeps Deeper Results For The Same Position")
+    public void samePosition() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x0FED_CBA9_8765_4321L;
+        table.store(key, Move.of(12, 28), 30, 8, TranspositionTable.LOWER);
+
+        // A shallower bound does not replace it
+        table.store(key, Move.of(11, 27), 10, 3, TranspositionTable.UPPER);
+        Assertions.assertEquals(8, TranspositionTable.depth(table.probe(key)));
+
+        // A shallower exact score does
+        table.store(key, Move.of(11, 27), 15, 3, TranspositionTable.EXACT);
+        Assertions.assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(table.probe(key)));
+        table.store(key, Move.of(12, 28), 30, 8, TranspositionTable.LOWER);
+
+        // So does anything once the entry is from an earlier search
+        table.newSearch();
+        table.store(key, Move.of(11, 27), 10, 3, TranspositionTable.UPPER);
+        long data = table.probe(key);
+        Assertions.assertEquals(3, TranspositionTable.depth(data));
+        Assertions.assertEquals(Move.of(11, 27), TranspositionTable.move(data));
+    }
+
+    @Test
+    @DisplayName("Caps The Size At 2^29 Entries")
+    public void maximumSize() {
+        Assertions.assertEquals(1 << 16, TranspositionTable.entries(1));
+        Assertions.assertEquals(1 << 17, TranspositionTable.entries(3));
+        Assertions.assertEquals(1 << 29, TranspositionTable.entries(8192));
+        Assertions.assertEquals(1 << 29, TranspositionTable.entries(16384));
+        Assertions.assertEquals(1 << 29, TranspositionTable.entries(Integer.MAX_VALUE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TranspositionTable.entries(0));
+    }
+
+    @Test
+    @DisplayName("Shared Table Speeds Up A Repeated Search")
+    public void sharedTable() {
+        TranspositionTable table = new TranspositionTable(4);
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        SearchResult first = Search.bestMove(Fen.load(fen), SearchLimits.ofDepth(4), table);
+        SearchResult second = Search.bestMove(Fen.load(fen), SearchLimits.ofDepth(4), table);
+        Assertions.assertEquals(first.score(), second.score());
+        Assertions.assertTrue(second.nodes() < first.nodes(), second.nodes() + " vs " + first.nodes());
+        Assertions.assertTrue(table.hitRate() > 0);
+        Assertions.assertTrue(table.occupancy() > 0);
+    }
+}